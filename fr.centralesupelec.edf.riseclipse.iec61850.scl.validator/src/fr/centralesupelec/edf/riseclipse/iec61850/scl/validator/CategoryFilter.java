@@ -0,0 +1,193 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+** 
+**  This file is part of the RiseClipse tool
+**  
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
+
+/*
+ * Selection of the validations to do, given by --only and --skip options.
+ * Categories are those of messages ("NSD/Validation/DataObject", "XSD/Validation"…),
+ * OCL documents use "OCL/" followed by their file name without extension,
+ * Java rules use "Rules/" followed by the class name of their provider.
+ * In a category glob, "*" matches any characters except "/" and "**" matches any characters;
+ * a glob matching a category also matches all categories below it ("NSD" selects all NSD validations).
+ * Validators check the categories before doing any work, so skipped validations cost nothing.
+ */
+public class CategoryFilter {
+
+    private static List< Pattern > only = new ArrayList<>();
+    private static List< Pattern > skip = new ArrayList<>();
+    // Only globs, split in segments, to know whether a category below a given one is selected
+    private static List< String[] > onlySegments = new ArrayList<>();
+    private static HashMap< String, Boolean > enabled = new HashMap<>();
+    private static HashMap< String, Boolean > mayBeEnabled = new HashMap<>();
+
+    private CategoryFilter() {}
+
+    public static void addOnly( @NonNull String glob ) {
+        only.add( toPattern( glob ));
+        onlySegments.add( glob.split( "/" ));
+        clearCaches();
+    }
+
+    public static void addSkip( @NonNull String glob ) {
+        skip.add( toPattern( glob ));
+        clearCaches();
+    }
+
+    private static void clearCaches() {
+        enabled.clear();
+        mayBeEnabled.clear();
+    }
+
+    private static Pattern toPattern( String glob ) {
+        return Pattern.compile( toRegex( glob ) + "(/.*)?" );
+    }
+
+    private static String toRegex( String glob ) {
+        StringBuilder regex = new StringBuilder();
+        for( int i = 0; i < glob.length(); ++i ) {
+            char c = glob.charAt( i );
+            if( c == '*' ) {
+                if(( i + 1 < glob.length() ) && ( glob.charAt( i + 1 ) == '*' )) {
+                    regex.append( ".*" );
+                    ++i;
+                }
+                else {
+                    regex.append( "[^/]*" );
+                }
+            }
+            else {
+                regex.append( Pattern.quote( String.valueOf( c )));
+            }
+        }
+        return regex.toString();
+    }
+
+    private static boolean matchesAny( List< Pattern > patterns, String category ) {
+        for( Pattern pattern : patterns ) {
+            if( pattern.matcher( category ).matches() ) return true;
+        }
+        return false;
+    }
+
+    /*
+     * Some validations may be skipped
+     */
+    public static boolean isActive() {
+        return ! ( only.isEmpty() && skip.isEmpty() );
+    }
+
+    /*
+     * Some validations were selected with --only
+     */
+    public static boolean hasOnly() {
+        return ! only.isEmpty();
+    }
+
+    /*
+     * Validators which do not check categories at every place a message is emitted use this
+     * chain: diagnostics whose message category is not enabled are dropped
+     */
+    public static @NonNull DiagnosticChain filter( @NonNull DiagnosticChain diagnostics ) {
+        if( ! isActive() ) return diagnostics;
+        return new DiagnosticChain() {
+
+            @Override
+            public void add( Diagnostic diagnostic ) {
+                if( isEnabled( diagnostic )) diagnostics.add( diagnostic );
+            }
+
+            @Override
+            public void addAll( Diagnostic diagnostic ) {
+                for( Diagnostic child : diagnostic.getChildren() ) {
+                    add( child );
+                }
+            }
+
+            @Override
+            public void merge( Diagnostic diagnostic ) {
+                if( diagnostic.getChildren().isEmpty() ) {
+                    add( diagnostic );
+                }
+                else {
+                    addAll( diagnostic );
+                }
+            }
+        };
+    }
+
+    private static boolean isEnabled( Diagnostic diagnostic ) {
+        for( Object data : diagnostic.getData() ) {
+            if( data instanceof RiseClipseMessage ) {
+                return isEnabled( (( RiseClipseMessage ) data ).getCategory() );
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Validations of this category must be done
+     */
+    public static boolean isEnabled( @NonNull String category ) {
+        return enabled.computeIfAbsent( category, c ->
+            ( only.isEmpty() || matchesAny( only, c )) && ! matchesAny( skip, c ));
+    }
+
+    /*
+     * Validations of this category or of some categories below it must be done
+     */
+    public static boolean mayBeEnabled( @NonNull String category ) {
+        return mayBeEnabled.computeIfAbsent( category, c -> {
+            if( matchesAny( skip, c )) return false;
+            if( isEnabled( c )) return true;
+            String[] segments = c.split( "/" );
+            for( String[] glob : onlySegments ) {
+                if( isPrefixOf( segments, glob )) return true;
+            }
+            return false;
+        });
+    }
+
+    /*
+     * The glob may match some categories starting with the given segments
+     */
+    private static boolean isPrefixOf( String[] segments, String[] glob ) {
+        for( int i = 0; i < segments.length; ++i ) {
+            if( i >= glob.length ) return false;
+            if( glob[i].contains( "**" )) return true;
+            if( ! segments[i].matches( toRegex( glob[i] ))) return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+**
+**  This file is part of the RiseClipse tool
+**
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+
+/*
+ * List of SCL files given with --files-from, in a file or on the standard input ("-").
+ * Paths are separated by newlines or NUL characters (as produced by find -print0), empty ones are ignored.
+ * The list is read while files are validated, so that validation starts with the first path
+ * and the whole list is never kept in memory.
+ * A read error is reported and ends the list, it does not stop the validation of the files already given.
+ */
+final class FileManifest implements Iterator< String >, Closeable {
+
+    private static final String FILES_FROM_CATEGORY = "SCL/FilesFrom";
+
+    private BufferedReader reader;
+    private String name;
+    private IRiseClipseConsole console;
+    private StringBuilder path = new StringBuilder();
+    private String next;
+    private boolean failed;
+
+    private FileManifest( BufferedReader reader, String name, IRiseClipseConsole console ) {
+        this.reader = reader;
+        this.name = name;
+        this.console = console;
+    }
+
+    static @NonNull FileManifest open( @NonNull String manifest, @NonNull IRiseClipseConsole console ) throws IOException {
+        if( RiseClipseValidatorSCL.STDIN_FILE.equals( manifest )) {
+            return new FileManifest( new BufferedReader( new InputStreamReader( System.in )), manifest, console );
+        }
+        return new FileManifest( Files.newBufferedReader( Paths.get( manifest ), Charset.defaultCharset() ), manifest, console );
+    }
+
+    /*
+     * The list could not be read until its end
+     */
+    boolean hasFailed() {
+        return failed;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if( next != null ) return true;
+        if( failed ) return false;
+        try {
+            int c;
+            while(( c = reader.read() ) != -1 ) {
+                if(( c == '\n' ) || ( c == '\0' )) {
+                    if( takePath() ) return true;
+                }
+                else if( c != '\r' ) {
+                    path.append(( char ) c );
+                }
+            }
+            return takePath();
+        }
+        catch( IOException e ) {
+            console.error( FILES_FROM_CATEGORY, 0, "Cannot read ", name, ": ", e.getMessage() );
+            failed = true;
+            return false;
+        }
+    }
+
+    private boolean takePath() {
+        String p = path.toString().trim();
+        path.setLength( 0 );
+        if( p.isEmpty() ) return false;
+        next = p;
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if( ! hasNext() ) throw new NoSuchElementException();
+        String p = next;
+        next = null;
+        return p;
+    }
+
+    Stream< String > stream() {
+        return StreamSupport.stream( Spliterators.spliteratorUnknownSize( this, Spliterator.ORDERED | Spliterator.NONNULL ), false );
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
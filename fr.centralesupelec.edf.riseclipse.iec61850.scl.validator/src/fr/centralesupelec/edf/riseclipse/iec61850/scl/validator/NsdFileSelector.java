@@ -0,0 +1,237 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+**
+**  This file is part of the RiseClipse tool
+**
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+
+/*
+ * Selects, among the given NSD files, those needed to validate the given SCL files.
+ * SCL files are scanned with a streaming parser for the values of ldNs, lnNs, dataNs and cdcNs;
+ * NS and NSDoc files whose namespace is one of them, or is in their DependsOn closure, are kept.
+ * The default namespace is always kept. ServiceNS and ApplicableServiceNS files are small and always kept.
+ * Namespaces are compared using id, version and revision: all releases of a referenced namespace are kept.
+ */
+final class NsdFileSelector {
+
+    private static final String NSD_SELECTOR_CATEGORY = "NSD/Selector";
+
+    private static final String DEFAULT_NAMESPACE = "IEC 61850-7-4:2007B";
+
+    private static final Set< String > NAMESPACE_NAMES = Set.of( "ldNs", "lnNs", "dataNs", "cdcNs" );
+    private static final Set< String > NAMESPACE_HOLDERS = Set.of( "DAI", "DA", "BDA" );
+
+    private static XMLInputFactory factory;
+
+    private NsdFileSelector() {}
+
+    private static XMLInputFactory getFactory() {
+        if( factory == null ) {
+            factory = XMLInputFactory.newInstance();
+            factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+            factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+        }
+        return factory;
+    }
+
+    // The namespace found at the beginning of an NSD file
+    private static class NsdHeader {
+        String root;
+        String namespace;
+        String dependsOn;
+    }
+
+    static @NonNull List< @NonNull String > select( @NonNull List< @NonNull String > nsdFiles, @NonNull List< @NonNull String > sclFiles, @NonNull IRiseClipseConsole console ) {
+        // The standard input can only be read once
+        if( sclFiles.contains( RiseClipseValidatorSCL.STDIN_FILE )) {
+            console.info( NSD_SELECTOR_CATEGORY, 0, "the standard input is used, all NSD files are kept" );
+            return nsdFiles;
+        }
+
+        Set< String > selected = new HashSet<>();
+        selected.add( DEFAULT_NAMESPACE );
+        for( String sclFile : sclFiles ) {
+            scanSclFile( sclFile, selected, console );
+        }
+
+        HashMap< String, NsdHeader > headers = new HashMap<>();
+        for( String nsdFile : nsdFiles ) {
+            headers.put( nsdFile, scanNsdFile( nsdFile, console ));
+        }
+
+        // DependsOn closure
+        boolean added = true;
+        while( added ) {
+            added = false;
+            for( NsdHeader header : headers.values() ) {
+                if(( header != null ) && "NS".equals( header.root ) && ( header.dependsOn != null )
+                        && selected.contains( header.namespace )) {
+                    added |= selected.add( header.dependsOn );
+                }
+            }
+        }
+
+        List< @NonNull String > files = new ArrayList<>();
+        for( String nsdFile : nsdFiles ) {
+            NsdHeader header = headers.get( nsdFile );
+            // Files which cannot be scanned are kept, errors will be reported when they are loaded
+            if(( header == null ) || ( header.namespace == null ) || selected.contains( header.namespace )
+                    || ! ( "NS".equals( header.root ) || "NSDoc".equals( header.root ))) {
+                console.info( NSD_SELECTOR_CATEGORY, 0, "keeping NSD file ", nsdFile );
+                files.add( nsdFile );
+            }
+            else {
+                console.info( NSD_SELECTOR_CATEGORY, 0, "NSD file ", nsdFile, " is not referenced and will not be loaded" );
+            }
+        }
+        return files;
+    }
+
+    private static void scanSclFile( String sclFile, Set< String > namespaces, IRiseClipseConsole console ) {
+        try( InputStream in = Files.newInputStream( Paths.get( sclFile ))) {
+            XMLStreamReader reader = getFactory().createXMLStreamReader( in );
+            boolean inNamespaceHolder = false;
+            boolean inVal = false;
+            StringBuilder value = new StringBuilder();
+            try {
+                while( reader.hasNext() ) {
+                    switch( reader.next() ) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if( NAMESPACE_HOLDERS.contains( reader.getLocalName() )) {
+                            inNamespaceHolder = NAMESPACE_NAMES.contains( reader.getAttributeValue( null, "name" ));
+                        }
+                        else if( inNamespaceHolder && "Val".equals( reader.getLocalName() )) {
+                            inVal = true;
+                            value.setLength( 0 );
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if( inVal ) value.append( reader.getText() );
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if( inVal && "Val".equals( reader.getLocalName() )) {
+                            inVal = false;
+                            String namespace = normalize( value.toString().trim() );
+                            if(( namespace != null ) && namespaces.add( namespace )) {
+                                console.info( NSD_SELECTOR_CATEGORY, sclFile, reader.getLocation().getLineNumber(),
+                                              "namespace \"", namespace, "\" is referenced" );
+                            }
+                        }
+                        else if( NAMESPACE_HOLDERS.contains( reader.getLocalName() )) {
+                            inNamespaceHolder = false;
+                        }
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch( IOException | XMLStreamException e ) {
+            console.warning( NSD_SELECTOR_CATEGORY, sclFile, 0, "cannot scan file for namespaces: ", e.getMessage() );
+        }
+    }
+
+    /*
+     * Returns null if the file cannot be scanned
+     */
+    private static NsdHeader scanNsdFile( String nsdFile, IRiseClipseConsole console ) {
+        try( InputStream in = Files.newInputStream( Paths.get( nsdFile ))) {
+            XMLStreamReader reader = getFactory().createXMLStreamReader( in );
+            NsdHeader header = new NsdHeader();
+            try {
+                int depth = 0;
+                while( reader.hasNext() ) {
+                    int event = reader.next();
+                    if( event == XMLStreamConstants.END_ELEMENT ) {
+                        --depth;
+                        continue;
+                    }
+                    if( event != XMLStreamConstants.START_ELEMENT ) continue;
+                    ++depth;
+                    if( depth == 1 ) {
+                        header.root = reader.getLocalName();
+                        header.namespace = namespaceOf( reader );
+                    }
+                    else if(( depth == 2 ) && "DependsOn".equals( reader.getLocalName() )) {
+                        header.dependsOn = namespaceOf( reader );
+                        break;
+                    }
+                    // DependsOn is only preceded by Copyright, the rest of the file is not needed
+                    else if(( depth == 2 ) && ! "Copyright".equals( reader.getLocalName() )) {
+                        break;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+            return header;
+        }
+        catch( IOException | XMLStreamException e ) {
+            console.warning( NSD_SELECTOR_CATEGORY, nsdFile, 0, "cannot scan file for namespace: ", e.getMessage() );
+            return null;
+        }
+    }
+
+    private static String namespaceOf( XMLStreamReader reader ) {
+        String id = reader.getAttributeValue( null, "id" );
+        String version = reader.getAttributeValue( null, "version" );
+        if(( id == null ) || ( version == null )) return null;
+        String revision = reader.getAttributeValue( null, "revision" );
+        return id + ":" + version + (( revision == null ) ? "" : revision );
+    }
+
+    /*
+     * "IEC 61850-7-4:2007B4" is normalized as "IEC 61850-7-4:2007B"
+     */
+    private static String normalize( String namespace ) {
+        int colon = namespace.lastIndexOf( ':' );
+        if( colon <= 0 ) return null;
+        int i = colon + 1;
+        while(( i < namespace.length() ) && Character.isDigit( namespace.charAt( i ))) ++i;
+        if( i == colon + 1 ) return null;
+        while(( i < namespace.length() ) && Character.isLetter( namespace.charAt( i ))) ++i;
+        return namespace.substring( 0, i );
+    }
+
+}
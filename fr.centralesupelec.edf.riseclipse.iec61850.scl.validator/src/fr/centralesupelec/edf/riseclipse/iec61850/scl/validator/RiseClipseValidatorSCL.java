@@ -24,17 +24,27 @@ package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -49,6 +59,7 @@ import fr.centralesupelec.edf.riseclipse.iec61850.scl.SclPackage;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.provider.SclItemProviderAdapterFactory;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.utilities.SclModelLoader;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd.NsdValidator;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.rules.SclRuleLoader;
 import fr.centralesupelec.edf.riseclipse.util.AbstractRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.FileRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
@@ -59,15 +70,20 @@ import fr.centralesupelec.edf.riseclipse.validation.ocl.OCLValidator;
 
 import org.eclipse.emf.common.notify.AdapterFactory;
 import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EDataType;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.EValidator;
 import org.eclipse.emf.ecore.EValidator.SubstitutionLabelProvider;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIHandler;
+import org.eclipse.emf.ecore.resource.impl.URIHandlerImpl;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.emf.edit.provider.IItemLabelProvider;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.ocl.pivot.validation.ComposedEValidator;
@@ -82,6 +98,10 @@ public class RiseClipseValidatorSCL {
     private static final String NSD_FILE_EXTENSION = ".nsd";
     private static final String OCL_FILE_EXTENSION = ".ocl";
     private static final String ZIP_FILE_EXTENSION = ".zip";
+    
+    // An SCL document is read from the standard input (package visibility)
+    static final String STDIN_FILE = "-";
+    private static final String STDIN_NAME = "stdin";
 
     private static final String HELP_OPTION                            = "--help";
     private static final String HELP_ENVIRONMENT_OPTION                = "--help-environment";
@@ -99,6 +119,10 @@ public class RiseClipseValidatorSCL {
                                                                          + " | " + INFO_OPTION     + " | " + DEBUG_OPTION ;
     private static final String OUTPUT_OPTION                          = "--output";
     private static final String XSD_OPTION                             = "--xml-schema";
+    private static final String XSD_SINGLE_PARSE_OPTION                = "--xsd-single-parse";
+    private static final String XSD_CONCURRENT_OPTION                  = "--xsd-concurrent";
+    private static final String XSD_ONLY_OPTION                        = "--xsd-only";
+    private static final String XSD_MAX_MESSAGES_OPTION                = "--xsd-max-messages";
     private static final String FORMAT_OPTION                          = "--format-string";
     
     private static final String MAKE_EXPLICIT_LINKS_OPTION             = "--make-explicit-links";
@@ -106,6 +130,15 @@ public class RiseClipseValidatorSCL {
     private static final String DISPLAY_NSD_MESSAGES_OPTION            = "--display-nsd-messages";
     private static final String DO_NOT_DISPLAY_COPYRIGHT_OPTION        = "--do-not-display-copyright";
     private static final String USE_FILENAMES_STARTING_WITH_DOT_OPTION = "--use-filenames-starting-with-dot";
+    private static final String REFERENCED_NSD_ONLY_OPTION             = "--referenced-nsd-only";
+    private static final String RULES_JAR_OPTION                       = "--rules-jar";
+    private static final String ONLY_OPTION                            = "--only";
+    private static final String SKIP_OPTION                            = "--skip";
+    private static final String CREATE_STARTUP_ARCHIVE_OPTION          = "--create-startup-archive";
+    private static final String SECTIONS_OPTION                        = "--sections";
+    private static final String LOAD_OPTION_OPTION                     = "--load-option";
+    private static final String NSD_ONLY_OPTION                        = "--nsd-only";
+    private static final String FILES_FROM_OPTION                      = "--files-from";
     
     private static final String RISECLIPSE_VARIABLE_PREFIX                    = "RISECLIPSE_";
     private static final String CONSOLE_LEVEL_VARIABLE_NAME                   = RISECLIPSE_VARIABLE_PREFIX + "CONSOLE_LEVEL";
@@ -117,6 +150,7 @@ public class RiseClipseValidatorSCL {
     private static final String DO_NOT_DISPLAY_COPYRIGHT_VARIABLE_NAME        = RISECLIPSE_VARIABLE_PREFIX + "DO_NOT_DISPLAY_COPYRIGHT";
     private static final String USE_FILENAMES_STARTING_WITH_DOT_VARIABLE_NAME = RISECLIPSE_VARIABLE_PREFIX + "USE_FILENAMES_STARTING_WITH_DOT";
     private static final String FORMAT_STRING_VARIABLE_NAME                   = RISECLIPSE_VARIABLE_PREFIX + "FORMAT_STRING";
+    private static final String REFERENCED_NSD_ONLY_VARIABLE_NAME             = RISECLIPSE_VARIABLE_PREFIX + "REFERENCED_NSD_ONLY";
 
     private static final String FALSE_VARIABLE_VALUE = "FALSE";
 
@@ -144,6 +178,10 @@ public class RiseClipseValidatorSCL {
     );
     
     private static final String VALIDATOR_SCL_CATEGORY = "SCL/Validator";
+    
+    private static final Set< String > SCL_SECTIONS = Set.of( "Header", "Substation", "Line", "Process", "Communication",
+                                                              "IED", "DataTypeTemplates", "Private", "Text" );
+    private static final Set< String > NSD_SECTIONS = Set.of( "IED", "DataTypeTemplates" );
     private static final String INFO_FORMAT_STRING = "%6$s%1$-8s%7$s: %4$s";
     
     private static final int EXIT_SUCCESS = 0;
@@ -153,6 +191,7 @@ public class RiseClipseValidatorSCL {
     private static SclItemProviderAdapterFactory sclAdapter;
     private static SclModelLoader sclLoader;
     private static NsdValidator nsdValidator;
+    private static ExecutorService xsdExecutor;
 
     private static boolean hiddenDoor = false;
     private static boolean makeExplicitLinks = false;
@@ -160,14 +199,30 @@ public class RiseClipseValidatorSCL {
     private static boolean displayCopyright = true;
     private static boolean displayNsdMessages = false;
     private static boolean keepDotFiles = false;
+    private static boolean referencedNsdOnly = false;
+    private static boolean xsdSingleParse = false;
+    private static boolean xsdConcurrent = false;
+    private static boolean xsdOnly = false;
+    private static boolean nsdOnly = false;
+    private static int xsdMaxMessages = 100;
     private static Severity consoleLevel = Severity.WARNING;
     private static String outputFile = null;
     private static String xsdFile = null;
     private static String formatString = null;
+    private static String startupArchive = null;
+    private static String filesFrom = null;
+    private static FileManifest manifest = null;
+    // null if all sections are loaded
+    private static Set< String > sections = null;
+    // Given with --load-option
+    private static Map< Object, Object > userLoadOptions = new HashMap<>();
+    // Used for all SCL files
+    private static Map< Object, Object > sclLoadOptions;
     
     private static List< @NonNull String> oclFiles;
     private static List< @NonNull String > nsdFiles;
     private static List< @NonNull String > sclFiles;
+    private static List< @NonNull String > rulesJars = new ArrayList<>();
 
     private static void usage() {
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
@@ -192,7 +247,8 @@ public class RiseClipseValidatorSCL {
                 + "files ending with \".nsdoc\" are considered NSDoc files, "
                 + "files ending with \".zip\" are decompressed and each file inside is taken into account "
                 + "(case is ignored for all these extensions), "
-                + "all others are considered SCL files" );
+                + "all others are considered SCL files, "
+                + "\"" + STDIN_FILE + "\" is an SCL document read from the standard input" );
         System.exit( -1 );
     }
 
@@ -212,6 +268,7 @@ public class RiseClipseValidatorSCL {
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\tfiles ending with \".zip\" are decompressed and each file inside is taken into account," );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\tcase is ignored for all these extensions," );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\tall others are considered SCL files." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\"" + STDIN_FILE + "\" is an SCL document read from the standard input." );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "" );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "The following options are recognized:" );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + ERROR_OPTION );
@@ -222,8 +279,41 @@ public class RiseClipseValidatorSCL {
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tThe amount of messages displayed is chosen according to this option, default is " + WARNING_OPTION + "." );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + OUTPUT_OPTION + " <file>" );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tmessages are outputed in the given file." );
-        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + XSD_OPTION + " <file>" );
-        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tA preliminary XML validation is done against the given XML schema file." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + XSD_OPTION + " <file> | <directory>" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tA preliminary XML validation is done against the given XML schema file. "
+                + "If a directory is given, it must contain a sub-directory for each version of SCL (2003, 2007A, 2007B, 2007B4…) "
+                + "with an SCL.xsd file; the schema used for each SCL file is chosen according to the version, revision "
+                + "and release attributes of its root element." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + XSD_SINGLE_PARSE_OPTION );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tXML validation is done while the SCL file is parsed to build the model, instead of a separate parse before." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + XSD_CONCURRENT_OPTION );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tXML validation is done on another thread while the model is built and validated, "
+                + "its messages are displayed at the end, sorted by line (ignored if " + XSD_SINGLE_PARSE_OPTION + " is used)." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + XSD_ONLY_OPTION );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tOnly XML validation against the schema given with " + XSD_OPTION + " is done, "
+                + "files are read in a streaming way without building the model, several files are validated concurrently. "
+                + "Validation of a file stops after a fatal error. NSD and OCL files are not used." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + XSD_MAX_MESSAGES_OPTION + " <number>" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tWith " + XSD_ONLY_OPTION + ", validation of a file stops after this number of messages, "
+                + "it must be at least 1, default is 100." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + SECTIONS_OPTION + " <section>(,<section>)*" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tOnly the given children of the SCL element (for example IED,DataTypeTemplates) are loaded, "
+                + "the Header is always loaded. OCL validation is not done because its constraints may use any section, "
+                + "NSD validation is not done if IED or DataTypeTemplates is not loaded. "
+                + "Explicit links to objects in sections which are not loaded cannot be made." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + NSD_ONLY_OPTION );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tOnly NSD validation is done, without building the whole model: "
+                + "LNs are read in a streaming way and only the DataTypeTemplates section is loaded, "
+                + "so that very large files can be validated with a small memory. "
+                + "Used with " + ONLY_OPTION + ", only the NSD validations selected by it are done." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + FILES_FROM_OPTION + " <file> | " + STDIN_FILE );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tSCL files to validate are also read from the given file or from the standard input, "
+                + "paths are separated by newlines or NUL characters. They are validated after the SCL files given on the command line, "
+                + "as soon as they are read. Directories and zip files are handled as on the command line, "
+                + "but NSD and OCL files must be given on the command line. With " + REFERENCED_NSD_ONLY_OPTION + ", all NSD files are kept." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + LOAD_OPTION_OPTION + " <name>=<value>" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tThe given EMF XMLResource load option (for example DEFER_IDREF_RESOLUTION=true) is used "
+                + "when SCL files are loaded, true and false are taken as booleans (this option may be repeated)." );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + FORMAT_OPTION + " <format-string>" );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tmessages are outputed with a java.util.Formatter using the given format string," );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\t1$ is severity, 2$ is category, 3$ is line number, 4$ is message, 5$ is filename," );
@@ -244,6 +334,27 @@ public class RiseClipseValidatorSCL {
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tThe tool information is not displayed at the beginning." );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + USE_FILENAMES_STARTING_WITH_DOT_OPTION );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tFiles whose name begins with a dot are not ignored." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + REFERENCED_NSD_ONLY_OPTION );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, 
+                  "\t\tSCL files are first scanned for the namespaces they reference (ldNs, lnNs, dataNs, cdcNs), "
+                + "only NSD files of these namespaces, of the default one and of the namespaces they depend on are loaded." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + RULES_JAR_OPTION + " <file>" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, 
+                  "\t\tRules written in Java are loaded from the given jar (this option may be repeated). "
+                + "Rules found on the classpath are always used." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + ONLY_OPTION + " <category-glob>" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + SKIP_OPTION + " <category-glob>" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, 
+                  "\t\tOnly the validations whose category matches one of the " + ONLY_OPTION + " globs and none of the " + SKIP_OPTION + " globs are done "
+                + "(these options may be repeated). Categories are those of messages (for example NSD/Validation/DataObject or XSD/Validation), "
+                + "OCL/<file name without extension> for OCL files and Rules/<provider class name> for Java rules. "
+                + "In a glob, * matches any characters except / and ** matches any characters, "
+                + "a glob also selects the categories below the ones it matches." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + CREATE_STARTUP_ARCHIVE_OPTION + " <file>" );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, 
+                  "\t\tA validation is done with the other options and files given, and the classes loaded are saved in the given AppCDS archive. "
+                + "This validation must succeed, the files given should therefore be valid. "
+                + "Later runs start faster with: java -XX:SharedArchiveFile=<file> -jar RiseClipseValidatorSCL.jar" );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + HELP_ENVIRONMENT_OPTION );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t\tEnvironment variables used are displayed." );
         System.exit( 0 );
@@ -278,6 +389,8 @@ public class RiseClipseValidatorSCL {
                     + "(ignoring case), it is equivalent to the use of " + DO_NOT_DISPLAY_COPYRIGHT_OPTION + " option." );
         console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + USE_FILENAMES_STARTING_WITH_DOT_VARIABLE_NAME + ": if its value is not equal to FALSE "
                     + "(ignoring case), it is equivalent to the use of " + USE_FILENAMES_STARTING_WITH_DOT_OPTION + " option." );
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "\t" + REFERENCED_NSD_ONLY_VARIABLE_NAME + ": if its value is not equal to FALSE "
+                    + "(ignoring case), it is equivalent to the use of " + REFERENCED_NSD_ONLY_OPTION + " option." );
         System.exit( 0 );
     }
     
@@ -346,6 +459,13 @@ public class RiseClipseValidatorSCL {
                 keepDotFiles = true;
             }
         }
+        
+        s = System.getenv( REFERENCED_NSD_ONLY_VARIABLE_NAME );
+        if( s != null ) {
+            if( ! s.equalsIgnoreCase( FALSE_VARIABLE_VALUE )) {
+                referencedNsdOnly = true;
+            }
+        }
     }
     
     public static void main( @NonNull String[] args ) {
@@ -395,6 +515,32 @@ public class RiseClipseValidatorSCL {
                     }
                     else usage();
                 }
+                else if( XSD_SINGLE_PARSE_OPTION.equals( args[i] )) {
+                    xsdSingleParse = true;
+                }
+                else if( XSD_CONCURRENT_OPTION.equals( args[i] )) {
+                    xsdConcurrent = true;
+                }
+                else if( XSD_ONLY_OPTION.equals( args[i] )) {
+                    xsdOnly = true;
+                }
+                else if( XSD_MAX_MESSAGES_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        try {
+                            xsdMaxMessages = Integer.parseInt( args[i] );
+                        }
+                        catch( NumberFormatException e ) {
+                            AbstractRiseClipseConsole.getConsole().error( VALIDATOR_SCL_CATEGORY, 0, "Value of option " + XSD_MAX_MESSAGES_OPTION + " is not a number" );
+                            usage();
+                        }
+                        if( xsdMaxMessages < 1 ) {
+                            AbstractRiseClipseConsole.getConsole().error( VALIDATOR_SCL_CATEGORY, 0, "Value of option " + XSD_MAX_MESSAGES_OPTION + " must be at least 1" );
+                            usage();
+                        }
+                        ++posFiles;
+                    }
+                    else usage();
+                }
                 else if( MAKE_EXPLICIT_LINKS_OPTION.equals( args[i] )) {
                     makeExplicitLinks = true;
                 }
@@ -417,6 +563,77 @@ public class RiseClipseValidatorSCL {
                 else if( USE_FILENAMES_STARTING_WITH_DOT_OPTION.equals( args[i] )) {
                     keepDotFiles = true;
                 }
+                else if( REFERENCED_NSD_ONLY_OPTION.equals( args[i] )) {
+                    referencedNsdOnly = true;
+                }
+                else if( ONLY_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        CategoryFilter.addOnly( args[i] );
+                        ++posFiles;
+                    }
+                    else usage();
+                }
+                else if( SKIP_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        CategoryFilter.addSkip( args[i] );
+                        ++posFiles;
+                    }
+                    else usage();
+                }
+                else if( CREATE_STARTUP_ARCHIVE_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        startupArchive = args[i];
+                        ++posFiles;
+                    }
+                    else usage();
+                }
+                else if( SECTIONS_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        sections = new HashSet<>();
+                        for( String section : args[i].split( "," )) {
+                            section = section.trim();
+                            if( section.isEmpty() ) continue;
+                            if( ! SCL_SECTIONS.contains( section )) {
+                                AbstractRiseClipseConsole.getConsole().warning( VALIDATOR_SCL_CATEGORY, 0, "Unknown SCL section " + section + " is ignored" );
+                            }
+                            sections.add( section );
+                        }
+                        ++posFiles;
+                    }
+                    else usage();
+                }
+                else if( FILES_FROM_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        filesFrom = args[i];
+                        ++posFiles;
+                    }
+                    else usage();
+                }
+                else if( NSD_ONLY_OPTION.equals( args[i] )) {
+                    nsdOnly = true;
+                }
+                else if( LOAD_OPTION_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        int equalPos = args[i].indexOf( '=' );
+                        if( equalPos <= 0 ) usage();
+                        String value = args[i].substring( equalPos + 1 );
+                        if( "true".equalsIgnoreCase( value ) || "false".equalsIgnoreCase( value )) {
+                            userLoadOptions.put( args[i].substring( 0, equalPos ), Boolean.valueOf( value ));
+                        }
+                        else {
+                            userLoadOptions.put( args[i].substring( 0, equalPos ), value );
+                        }
+                        ++posFiles;
+                    }
+                    else usage();
+                }
+                else if( RULES_JAR_OPTION.equals( args[i] )) {
+                    if( ++i < args.length ) {
+                        rulesJars.add( args[i] );
+                        ++posFiles;
+                    }
+                    else usage();
+                }
                 else if( "--hidden-door".equals( args[i] ) ) {
                     hiddenDoor  = true;
                 }
@@ -440,28 +657,211 @@ public class RiseClipseValidatorSCL {
         
         //console.doNotDisplayIdenticalMessages();  // NOSONAR
 
+        if( startupArchive != null ) {
+            // The training run is done with all other arguments
+            List< @NonNull String > arguments = new ArrayList<>();
+            for( int i = 0; i < args.length; ++i ) {
+                if( CREATE_STARTUP_ARCHIVE_OPTION.equals( args[i] )) {
+                    ++i;
+                    continue;
+                }
+                arguments.add( args[i] );
+            }
+            System.exit( StartupArchive.create( startupArchive, arguments, console ));
+        }
+
         oclFiles = new ArrayList<>();
         nsdFiles = new ArrayList<>();
         sclFiles = new ArrayList<>();
         for( int i = posFiles; i < args.length; ++i ) {
+            if( STDIN_FILE.equals( args[i] )) {
+                console.info( VALIDATOR_SCL_CATEGORY, 0, "adding standard input as SCL file" );
+                sclFiles.add( STDIN_FILE );
+                continue;
+            }
             getFiles( Paths.get( args[i] ), console );
         }
         
+        if( referencedNsdOnly && ! nsdFiles.isEmpty() ) {
+            if( filesFrom == null ) {
+                nsdFiles = NsdFileSelector.select( nsdFiles, sclFiles, console );
+            }
+            else {
+                console.info( VALIDATOR_SCL_CATEGORY, 0, "All NSD files are kept because files given with " + FILES_FROM_OPTION + " are not known in advance" );
+            }
+        }
+        
         if( hiddenDoor ) {
             doHiddenDoor();
         }
 
+        Iterator< String > files = sclFiles.iterator();
+        if( filesFrom != null ) {
+            if( STDIN_FILE.equals( filesFrom ) && sclFiles.contains( STDIN_FILE )) {
+                console.error( VALIDATOR_SCL_CATEGORY, 0, "Standard input cannot be used both for an SCL file and for " + FILES_FROM_OPTION );
+                System.exit( EXIT_FAILURE );
+            }
+            try {
+                // Closed on exit
+                manifest = FileManifest.open( filesFrom, console );
+                // Each path is taken as if it was given on the command line
+                files = Stream.concat( sclFiles.stream(), manifest.stream().flatMap( path -> sclFilesOf( path, console ).stream() )).iterator();
+            }
+            catch( IOException e ) {
+                console.error( VALIDATOR_SCL_CATEGORY, 0, "Cannot read ", filesFrom, ": ", e.getMessage() );
+                System.exit( EXIT_FAILURE );
+            }
+        }
+
+        if( xsdOnly ) {
+            System.exit( runXsdOnly( files, console ));
+        }
+
+        if( sections != null ) {
+            skipValidationsOfMissingSections( console );
+        }
+        if( nsdOnly ) {
+            if( CategoryFilter.hasOnly() ) {
+                // Adding NSD to the globs of --only would select NSD validations the user did not ask for
+                CategoryFilter.addSkip( "OCL" );
+                CategoryFilter.addSkip( "Rules" );
+            }
+            else {
+                CategoryFilter.addOnly( "NSD" );
+            }
+        }
+
         prepare( displayNsdMessages );
+        if( nsdOnly && ( nsdValidator == null )) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, NSD_ONLY_OPTION + " needs NSD files" );
+            System.exit( EXIT_FAILURE );
+        }
         int returned_value = EXIT_SUCCESS;
-        for( int i = 0; i < sclFiles.size(); ++i ) {
-            if( run( makeExplicitLinks, sclFiles.get( i )) == EXIT_FAILURE ) {
+        while( files.hasNext() ) {
+            if( runFile( files.next(), console ) == EXIT_FAILURE ) {
                 returned_value = EXIT_FAILURE;
             }
         }
+        if(( manifest != null ) && manifest.hasFailed() ) {
+            returned_value = EXIT_FAILURE;
+        }
         System.exit( returned_value );
     }
 
+    private static int runFile( @NonNull String sclFile, @NonNull IRiseClipseConsole console ) {
+        if( ! STDIN_FILE.equals( sclFile )) {
+            return nsdOnly ? runNsdOnly( sclFile, null ) : run( makeExplicitLinks, sclFile );
+        }
+        if( nsdOnly ) {
+            // The document is read twice, it is kept in memory
+            return runNsdOnly( STDIN_NAME, readStandardInput( console ));
+        }
+        return run( makeExplicitLinks, System.in, STDIN_NAME );
+    }
+
+    /*
+     * Validations needing sections which are not loaded would give wrong results
+     */
+    private static void skipValidationsOfMissingSections( @NonNull IRiseClipseConsole console ) {
+        if( ! sections.containsAll( SCL_SECTIONS )) {
+            console.info( VALIDATOR_SCL_CATEGORY, 0, "OCL validation is not done because some sections are not loaded" );
+            CategoryFilter.addSkip( "OCL" );
+        }
+        if( ! sections.containsAll( NSD_SECTIONS )) {
+            console.info( VALIDATOR_SCL_CATEGORY, 0, "NSD validation is not done because IED or DataTypeTemplates is not loaded" );
+            CategoryFilter.addSkip( "NSD" );
+        }
+    }
+
+    /*
+     * Files are validated concurrently, messages are output in the order of files.
+     * The number of files being validated is bounded, so that a long list of files does not fill the memory.
+     */
+    private static int runXsdOnly( @NonNull Iterator< String > files, @NonNull IRiseClipseConsole console ) {
+        if( xsdFile == null ) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, XSD_ONLY_OPTION + " needs an XML schema given with " + XSD_OPTION );
+            return EXIT_FAILURE;
+        }
+        if( ! nsdFiles.isEmpty() || ! oclFiles.isEmpty() ) {
+            console.warning( VALIDATOR_SCL_CATEGORY, 0, "NSD and OCL files are not used with " + XSD_ONLY_OPTION + ", only the XML schema is checked" );
+        }
+        XSDValidator.prepare( xsdFile );
+
+        int nbThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool( nbThreads );
+        ArrayDeque< String > names = new ArrayDeque<>();
+        ArrayDeque< Future< List< RiseClipseMessage > >> results = new ArrayDeque<>();
+        int returned_value = EXIT_SUCCESS;
+        while( files.hasNext() ) {
+            String sclFile = files.next();
+            if( STDIN_FILE.equals( sclFile )) {
+                ByteBuffer content = readStandardInput( console );
+                results.add( executor.submit( () -> XSDValidator.validateStreaming( content, STDIN_NAME, xsdMaxMessages )));
+            }
+            else {
+                results.add( executor.submit( () -> XSDValidator.validateStreaming( sclFile, xsdMaxMessages )));
+            }
+            names.add( sclFile );
+            if( results.size() > 2 * nbThreads ) {
+                if( outputXsdOnlyResults( names.poll(), results.poll(), console ) == EXIT_FAILURE ) {
+                    returned_value = EXIT_FAILURE;
+                }
+            }
+        }
+        if(( manifest != null ) && manifest.hasFailed() ) {
+            returned_value = EXIT_FAILURE;
+        }
+        executor.shutdown();
+
+        while( ! results.isEmpty() ) {
+            if( outputXsdOnlyResults( names.poll(), results.poll(), console ) == EXIT_FAILURE ) {
+                returned_value = EXIT_FAILURE;
+            }
+        }
+        return returned_value;
+    }
+
+    private static int outputXsdOnlyResults( String sclFile, Future< List< RiseClipseMessage > > result, @NonNull IRiseClipseConsole console ) {
+        int returned_value = EXIT_SUCCESS;
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "XML validation of file: " + sclFile );
+        try {
+            for( RiseClipseMessage message : result.get() ) {
+                if( message.getSeverity().compareTo( Severity.ERROR ) <= 0 ) {
+                    returned_value = EXIT_FAILURE;
+                }
+                console.output( message );
+            }
+        }
+        catch( ExecutionException e ) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, "XML validation of file ", sclFile, " failed: ", e.getCause() );
+            returned_value = EXIT_FAILURE;
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            returned_value = EXIT_FAILURE;
+        }
+        return returned_value;
+    }
+
     private static void getFiles( Path path, IRiseClipseConsole console ) {
+        getFiles( path, sclFiles, true, console );
+    }
+
+    /*
+     * Paths read with --files-from are taken once NSD and OCL files are loaded, only SCL files are kept
+     */
+    private static @NonNull List< @NonNull String > sclFilesOf( @NonNull String path, @NonNull IRiseClipseConsole console ) {
+        List< @NonNull String > files = new ArrayList<>();
+        try {
+            getFiles( Paths.get( path ), files, false, console );
+        }
+        catch( InvalidPathException e ) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, "Invalid path ", path, " given with ", FILES_FROM_OPTION );
+        }
+        return files;
+    }
+
+    private static void getFiles( Path path, List< @NonNull String > sclTarget, boolean withOtherFiles, IRiseClipseConsole console ) {
         if( path.getName( path.getNameCount() - 1 ).toString().startsWith( "." )) {
             if( ! keepDotFiles ) {
                 console.info( VALIDATOR_SCL_CATEGORY, 0, path, " is ignored because it starts with a dot" );
@@ -471,7 +871,7 @@ public class RiseClipseValidatorSCL {
         if( Files.isDirectory( path )) {
             try {
                 Files.list( path )
-                    .forEach( f -> getFiles( f.normalize(), console ));
+                    .forEach( f -> getFiles( f.normalize(), sclTarget, withOtherFiles, console ));
             }
             catch( IOException e ) {
                 console.error( VALIDATOR_SCL_CATEGORY, 0, "got IOException while listing content of directory ", path );
@@ -482,38 +882,33 @@ public class RiseClipseValidatorSCL {
             int dotPos = name.lastIndexOf( "." );
             if( dotPos != -1 ) {
                 if( name.substring( dotPos ).equalsIgnoreCase( OCL_FILE_EXTENSION )) {
-                    console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as OCL file ", name );
-                    oclFiles.add( name );
+                    addOtherFile( oclFiles, "OCL", name, withOtherFiles, console );
                 }
                 else if( name.substring( dotPos ).equalsIgnoreCase( NSD_FILE_EXTENSION )) {
-                    console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as NSD file ", name );
-                    nsdFiles.add( name );
+                    addOtherFile( nsdFiles, "NSD", name, withOtherFiles, console );
                 }
                 else if( name.substring( dotPos ).equalsIgnoreCase( SNSD_FILE_EXTENSION )) {
-                    console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as NSD file ", name );
-                    nsdFiles.add( name );
+                    addOtherFile( nsdFiles, "NSD", name, withOtherFiles, console );
                 }
                 else if( name.substring( dotPos ).equalsIgnoreCase( APP_NS_FILE_EXTENSION )) {
-                    console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as NSD file ", name );
-                    nsdFiles.add( name );
+                    addOtherFile( nsdFiles, "NSD", name, withOtherFiles, console );
                 }
                 else if( name.substring( dotPos ).equalsIgnoreCase( NSDOC_FILE_EXTENSION )) {
-                    console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as NSD file ", name );
-                    nsdFiles.add( name );
+                    addOtherFile( nsdFiles, "NSD", name, withOtherFiles, console );
                 }
                 else if( name.substring( dotPos ).equalsIgnoreCase( ZIP_FILE_EXTENSION )) {
                     for( String file : getFilesFromZipFile( path, console )) {
-                        getFiles( Paths.get( file ).normalize(), console );
+                        getFiles( Paths.get( file ).normalize(), sclTarget, withOtherFiles, console );
                     }
                 }
                 else {
                     console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as SCL file ", name );
-                    sclFiles.add( name );
+                    sclTarget.add( name );
                 }
             }
             else {
                 console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as SCL file ", name );
-                sclFiles.add( name );
+                sclTarget.add( name );
             }
         }
         else {
@@ -524,6 +919,16 @@ public class RiseClipseValidatorSCL {
 
     // Code taken partially from https://www.baeldung.com/java-compress-and-uncompress
     // and also from https://stackoverflow.com/questions/9324933/what-is-a-good-java-library-to-zip-unzip-files
+
+    private static void addOtherFile( List< @NonNull String > files, String kind, String name, boolean accepted, IRiseClipseConsole console ) {
+        if( ! accepted ) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, name, " is ignored, ", kind, " files cannot be given with ", FILES_FROM_OPTION );
+            return;
+        }
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "adding as ", kind, " file ", name );
+        files.add( name );
+    }
+
     private static @NonNull ArrayList< String > getFilesFromZipFile( @NonNull Path zipPath, @NonNull IRiseClipseConsole console ) {
         @NonNull ArrayList< String > files = new ArrayList<>();
         @NonNull String zipName = zipPath.getFileName().toString();
@@ -631,7 +1036,7 @@ public class RiseClipseValidatorSCL {
     
         for( int i = 0; i < sclFiles.size(); ++i ) {
             console.setLevel( Severity.WARNING );
-            sclLoader.reset();
+            resetSclLoader();
             Resource resource = sclLoader.loadWithoutValidation( sclFiles.get( i ));
             sclLoader.finalizeLoad( console );
             if( resource.getContents().size() == 0 ) continue;
@@ -694,7 +1099,7 @@ public class RiseClipseValidatorSCL {
 
         for( int i = 0; i < sclFiles.size(); ++i ) {
             console.setLevel( Severity.WARNING );
-            sclLoader.reset();
+            resetSclLoader();
             Resource resource = sclLoader.loadWithoutValidation( sclFiles.get( i ));
             sclLoader.finalizeLoad( console );
             console.setLevel( Severity.INFO );
@@ -788,43 +1193,124 @@ public class RiseClipseValidatorSCL {
             return;
         }
 
-        ComposedEValidator validator = ComposedEValidator.install( sclPg );
-
-        if(( oclFiles != null ) && ( ! oclFiles.isEmpty() )) {
-            oclValidator = new OCLValidator( sclPg, console );
+        // OCL and Xtext classes are only loaded if there are OCL documents
+        SclComposedEValidator validator = SclComposedEValidator.install( sclPg );
 
-            for( int i = 0; i < oclFiles.size(); ++i ) {
-                oclValidator.addOCLDocument( oclFiles.get( i ), console );
-            }
-            oclValidator.prepare( validator, console );
+        List< @NonNull String > selectedOclFiles = ( oclFiles == null ) ? new ArrayList<>() : selectedOclFiles( oclFiles );
+        if( ! selectedOclFiles.isEmpty() ) {
+            prepareOcl( sclPg, selectedOclFiles, console );
         }
 
-        if(( nsdFiles != null ) && ( ! nsdFiles.isEmpty() )) {
+        SclRuleLoader.install( validator, rulesJars, console );
+
+        if(( nsdFiles != null ) && ( ! nsdFiles.isEmpty() ) && NsdValidator.isEnabled() ) {
             nsdValidator = new NsdValidator( sclPg );
-            for( int i = 0; i < nsdFiles.size(); ++i ) {
-                nsdValidator.addNsdDocument( nsdFiles.get( i ), console );
-            }
+            nsdValidator.addNsdDocuments( nsdFiles, console );
             nsdValidator.prepare( validator, console, displayNsdMessages );
         }
 
         sclLoader = new SclModelLoader();
         sclAdapter = new SclItemProviderAdapterFactory();
 
+        // Shared by all files (and threads): parsers and the mapping from XML names to features are only set up once
+        sclLoadOptions = new HashMap<>();
+        // With --nsd-only, files are loaded without their LNs, only DataTypeTemplates is needed
+        sclLoadOptions.put( XMLResource.OPTION_USE_PARSER_POOL, nsdOnly ? new SclParserPool( false, StreamingNsdValidator.TEMPLATES_SECTION )
+                                                                        : new SclParserPool(( xsdFile != null ) && xsdSingleParse, sections ));
+        sclLoadOptions.put( XMLResource.OPTION_USE_XML_NAME_TO_FEATURE_MAP, Collections.synchronizedMap( new HashMap<>() ));
+        sclLoadOptions.putAll( userLoadOptions );
         if( xsdFile != null ) {
             XSDValidator.prepare( xsdFile );
+            // With single parse, validation is done by the parser pool
+            if( xsdConcurrent && ! xsdSingleParse && ( xsdExecutor == null )) {
+                xsdExecutor = Executors.newSingleThreadExecutor( r -> {
+                    Thread thread = new Thread( r, "XSD validation" );
+                    // Must not prevent the JVM from exiting
+                    thread.setDaemon( true );
+                    return thread;
+                });
+            }
         }
     }
 
+    private static void prepareOcl( @NonNull SclPackage sclPg, @NonNull List< @NonNull String > files, @NonNull IRiseClipseConsole console ) {
+        // Installed over the SclComposedEValidator, which becomes one of its children
+        ComposedEValidator validator = ComposedEValidator.install( sclPg );
+        oclValidator = new OCLValidator( sclPg, console );
+
+        for( String oclFile : files ) {
+            oclValidator.addOCLDocument( oclFile, console );
+        }
+        oclValidator.prepare( validator, console );
+    }
+
+    private static List< @NonNull String > selectedOclFiles( List< @NonNull String > files ) {
+        List< @NonNull String > result = new ArrayList<>();
+        for( String file : files ) {
+            String name = Paths.get( file ).getFileName().toString();
+            int dotPos = name.lastIndexOf( '.' );
+            if( dotPos != -1 ) name = name.substring( 0, dotPos );
+            if( CategoryFilter.isEnabled( "OCL/" + name )) {
+                result.add( file );
+            }
+        }
+        return result;
+    }
+
     // public because used by ui
     public static int run( boolean makeExplicitLinks, @NonNull String sclFile ) {
+        return runContent( makeExplicitLinks, sclFile, null );
+    }
+
+    /*
+     * The stream is read completely and kept in memory, the name is used in messages instead of a filename
+     */
+    public static int run( boolean makeExplicitLinks, @NonNull InputStream content, @NonNull String name ) {
+        try {
+            return run( makeExplicitLinks, ByteBuffer.wrap( content.readAllBytes() ), name );
+        }
+        catch( IOException e ) {
+            AbstractRiseClipseConsole.getConsole().error( VALIDATOR_SCL_CATEGORY, 0, "Cannot read ", name, ": ", e.getMessage() );
+            return EXIT_FAILURE;
+        }
+    }
+
+    /*
+     * The name is used in messages instead of a filename
+     */
+    public static int run( boolean makeExplicitLinks, @NonNull ByteBuffer content, @NonNull String name ) {
+        return runContent( makeExplicitLinks, name, content );
+    }
+
+    /*
+     * content is null if sclFile must be read
+     */
+    private static int runContent( boolean makeExplicitLinks, @NonNull String sclFile, ByteBuffer content ) {
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         
-        if( xsdFile != null ) {
-            XSDValidator.validate( sclFile );
+        Future< List< RiseClipseMessage > > xsdMessages = null;
+        if(( xsdFile != null ) && ! xsdSingleParse ) {
+            if( xsdExecutor != null ) {
+                xsdMessages = xsdExecutor.submit( () -> ( content == null ) ? XSDValidator.validateAndCollect( sclFile )
+                                                                            : XSDValidator.validateAndCollect( content, sclFile ));
+            }
+            else {
+                validateXsd( sclFile, content );
+            }
         }
         
-        sclLoader.reset();
-        Resource resource = sclLoader.loadWithoutValidation( sclFile );
+        resetSclLoader();
+        Resource resource = ( content == null ) ? sclLoader.loadWithoutValidation( sclFile ) : load( sclLoader, content, sclFile );
+        if(( xsdFile != null ) && xsdSingleParse && ! SclParserPool.wasUsed() ) {
+            // The loader did not use the parser pool
+            validateXsd( sclFile, content );
+        }
+        // Validations needing the missing sections are skipped, loading all of them must not go unnoticed
+        boolean sectionsIgnored = ( sections != null ) && ( resource != null ) && ! SclParserPool.wasFiltered();
+        if( sectionsIgnored ) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, "The loader did not use the parser pool, option ", SECTIONS_OPTION,
+                           " has been ignored for ", sclFile, " and all sections have been loaded" );
+        }
         if( makeExplicitLinks ) {
             console.info( VALIDATOR_SCL_CATEGORY, 0, "Making explicit links for file: " + sclFile );
             sclLoader.finalizeLoad( console );
@@ -835,11 +1321,118 @@ public class RiseClipseValidatorSCL {
             if( nsdValidator != null ) nsdValidator.reset();
             // Not needed for the OCL validator
             // if( oclValidator != null ) oclValidator.reset();  // NOSONAR
-            return validate( resource, sclAdapter );
+            int result = validate( resource, sclAdapter );
+            outputXsdMessages( xsdMessages, console );
+            return sectionsIgnored ? EXIT_FAILURE : result;
         }
+        outputXsdMessages( xsdMessages, console );
         return EXIT_SUCCESS;
     }
 
+    /*
+     * reset() may give a new resource set: the shared load options (parser pool, section filter…)
+     * must be given again, otherwise they would silently be ignored
+     */
+    private static void resetSclLoader() {
+        sclLoader.reset();
+        sclLoader.getResourceSet().getLoadOptions().putAll( sclLoadOptions );
+    }
+
+    private static void validateXsd( @NonNull String sclFile, ByteBuffer content ) {
+        if( content == null ) {
+            XSDValidator.validate( sclFile );
+        }
+        else {
+            XSDValidator.validate( content, sclFile );
+        }
+    }
+
+    /*
+     * The document is loaded by the loader as a file would be: the resource set reads the content
+     * instead of the file with the given name while it is loaded
+     */
+    static Resource load( @NonNull SclModelLoader loader, @NonNull ByteBuffer content, @NonNull String name ) {
+        URIHandler handler = new ContentURIHandler( content, name );
+        EList< URIHandler > handlers = loader.getResourceSet().getURIConverter().getURIHandlers();
+        handlers.add( 0, handler );
+        try {
+            return loader.loadWithoutValidation( name );
+        }
+        finally {
+            handlers.remove( handler );
+        }
+    }
+
+    private static class ContentURIHandler extends URIHandlerImpl {
+
+        private ByteBuffer content;
+        private Set< URI > uris = new HashSet<>();
+
+        ContentURIHandler( ByteBuffer content, String name ) {
+            this.content = content;
+            // The loader may use any of these URIs for the name
+            uris.add( URI.createURI( name ));
+            uris.add( URI.createFileURI( name ));
+            uris.add( URI.createFileURI( new File( name ).getAbsolutePath() ));
+        }
+
+        @Override
+        public boolean canHandle( URI uri ) {
+            return uris.contains( uri );
+        }
+
+        @Override
+        public InputStream createInputStream( URI uri, Map< ?, ? > options ) throws IOException {
+            return XSDValidator.inputStreamOf( content );
+        }
+
+        @Override
+        public boolean exists( URI uri, Map< ?, ? > options ) {
+            return true;
+        }
+    }
+
+    private static ByteBuffer readStandardInput( @NonNull IRiseClipseConsole console ) {
+        try {
+            return ByteBuffer.wrap( System.in.readAllBytes() );
+        }
+        catch( IOException e ) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, "Cannot read standard input: ", e.getMessage() );
+            return ByteBuffer.allocate( 0 );
+        }
+    }
+
+    /*
+     * content is null if sclFile must be read
+     */
+    private static int runNsdOnly( @NonNull String sclFile, ByteBuffer content ) {
+        IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
+
+        console.info( VALIDATOR_SCL_CATEGORY, 0, "Validating file: " + sclFile );
+        if( StreamingNsdValidator.validate( sclFile, content, nsdValidator, sclLoader, sclLoadOptions, console )) {
+            return EXIT_SUCCESS;
+        }
+        return EXIT_FAILURE;
+    }
+
+    /*
+     * Waits for the XML validation done on another thread
+     */
+    private static void outputXsdMessages( Future< List< RiseClipseMessage > > xsdMessages, IRiseClipseConsole console ) {
+        if( xsdMessages == null ) return;
+        try {
+            for( RiseClipseMessage message : xsdMessages.get() ) {
+                console.output( message );
+            }
+        }
+        catch( ExecutionException e ) {
+            console.error( VALIDATOR_SCL_CATEGORY, 0, "XML validation failed: ", e.getCause() );
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private static int validate( @NonNull Resource resource, final AdapterFactory adapter ) {
         int returned_value = EXIT_SUCCESS;
         if( resource.getContents().isEmpty() ) return returned_value;
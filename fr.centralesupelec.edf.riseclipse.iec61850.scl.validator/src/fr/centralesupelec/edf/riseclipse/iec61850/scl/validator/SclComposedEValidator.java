@@ -0,0 +1,111 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+** 
+**  This file is part of the RiseClipse tool
+**  
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.emf.ecore.util.EObjectValidator;
+import org.eclipse.jdt.annotation.NonNull;
+
+/*
+ * Same role as ComposedEValidator of Eclipse OCL, without loading any OCL or Xtext class:
+ * when no OCL document is used, NSD validation and Java rules do not pay for OCL initialisation.
+ * When OCL documents are used, the ComposedEValidator of OCL is installed over this one.
+ */
+public class SclComposedEValidator implements EValidator {
+
+    private List< @NonNull EValidator > children = new ArrayList<>();
+
+    /*
+     * The validator already registered for ePackage (usually the generated one) is kept as first child,
+     * EObjectValidator.INSTANCE is used if there is none
+     */
+    public static @NonNull SclComposedEValidator install( @NonNull EPackage ePackage ) {
+        EValidator oldValidator = EValidator.Registry.INSTANCE.getEValidator( ePackage );
+        if( oldValidator instanceof SclComposedEValidator ) {
+            return ( SclComposedEValidator ) oldValidator;
+        }
+        SclComposedEValidator newValidator = new SclComposedEValidator();
+        if( oldValidator != null ) {
+            newValidator.addChild( oldValidator );
+        }
+        else {
+            // Without a registered validator, Diagnostician uses the default one:
+            // it must be kept for structural checks (multiplicity, required features…)
+            newValidator.addChild( EObjectValidator.INSTANCE );
+        }
+        EValidator.Registry.INSTANCE.put( ePackage, newValidator );
+        return newValidator;
+    }
+
+    public void addChild( @NonNull EValidator child ) {
+        if( ! children.contains( child )) {
+            children.add( child );
+        }
+    }
+
+    @Override
+    public boolean validate( EObject eObject, DiagnosticChain diagnostics, Map< Object, Object > context ) {
+        boolean result = true;
+        for( EValidator child : children ) {
+            if( ! child.validate( eObject, diagnostics, context )) {
+                result = false;
+                if( diagnostics == null ) return false;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean validate( EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map< Object, Object > context ) {
+        boolean result = true;
+        for( EValidator child : children ) {
+            if( ! child.validate( eClass, eObject, diagnostics, context )) {
+                result = false;
+                if( diagnostics == null ) return false;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean validate( EDataType eDataType, Object value, DiagnosticChain diagnostics, Map< Object, Object > context ) {
+        boolean result = true;
+        for( EValidator child : children ) {
+            if( ! child.validate( eDataType, value, diagnostics, context )) {
+                result = false;
+                if( diagnostics == null ) return false;
+            }
+        }
+        return result;
+    }
+
+}
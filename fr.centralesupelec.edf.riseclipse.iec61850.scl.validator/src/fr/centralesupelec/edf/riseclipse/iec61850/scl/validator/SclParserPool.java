@@ -0,0 +1,482 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+** 
+**  This file is part of the RiseClipse tool
+**  
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.validation.ValidatorHandler;
+
+import org.eclipse.emf.ecore.xmi.impl.XMLParserPoolImpl;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.Parser;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+
+/*
+ * Parser pool given to the EMF loader of SCL files.
+ * When XSD validation is done during the same parse, each SAX event is sent both to a ValidatorHandler and to the EMF handler.
+ * The ValidatorHandler is not in the chain (it would add default attributes to what EMF sees), it only receives a copy.
+ * The parser reads bytes, it detects the encoding and handles a BOM.
+ * When only some sections are loaded, the events of the other children of the root element and of their content
+ * are not given to EMF, so that no object is built for them; the ValidatorHandler still receives the whole document.
+ */
+class SclParserPool extends XMLParserPoolImpl {
+
+    private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
+
+    // Set when a file has been validated through this pool
+    private static ThreadLocal< Boolean > used = ThreadLocal.withInitial( () -> false );
+
+    /*
+     * Returns true if the last loaded file has been validated, and forgets it
+     */
+    static boolean wasUsed() {
+        boolean res = used.get();
+        used.set( false );
+        return res;
+    }
+
+    // Set when only some sections of a file have been given to EMF through this pool
+    private static ThreadLocal< Boolean > filtered = ThreadLocal.withInitial( () -> false );
+
+    /*
+     * Returns true if the sections of the last loaded file have been filtered, and forgets it
+     */
+    static boolean wasFiltered() {
+        boolean res = filtered.get();
+        filtered.set( false );
+        return res;
+    }
+
+    private boolean xsdValidation;
+    // null if all sections are loaded
+    private Set< String > sections;
+
+    SclParserPool( boolean xsdValidation, Set< String > sections ) {
+        this.xsdValidation = xsdValidation;
+        this.sections = sections;
+    }
+
+    @Override
+    public synchronized SAXParser get( Map< String, Boolean > features, Map< String, ? > properties, boolean useLexicalHandler ) throws ParserConfigurationException, SAXException {
+        SAXParser parser = super.get( features, properties, useLexicalHandler );
+        ValidatorHandler validatorHandler = xsdValidation ? XSDValidator.newValidatorHandler() : null;
+        if(( validatorHandler == null ) && ( sections == null )) return parser;
+        return new SclSAXParser( parser, validatorHandler, ( sections == null ) ? null : new SectionFilter( sections ));
+    }
+
+    @Override
+    public synchronized void release( SAXParser parser, Map< String, Boolean > features, Map< String, ? > properties, boolean useLexicalHandler ) {
+        if( parser instanceof SclSAXParser ) {
+            parser = (( SclSAXParser ) parser ).parser;
+        }
+        super.release( parser, features, properties, useLexicalHandler );
+    }
+
+    private static class SclSAXParser extends SAXParser {
+
+        private SAXParser parser;
+        private XMLReader reader;
+        private SectionFilter filter;
+
+        SclSAXParser( SAXParser parser, ValidatorHandler validatorHandler, SectionFilter filter ) throws SAXException {
+            this.parser = parser;
+            this.reader = new SclXMLReader( parser.getXMLReader(), validatorHandler, filter );
+            this.filter = filter;
+        }
+
+        @SuppressWarnings( "deprecation" )
+        @Override
+        public Parser getParser() throws SAXException {
+            return parser.getParser();
+        }
+
+        @Override
+        public XMLReader getXMLReader() throws SAXException {
+            return reader;
+        }
+
+        @Override
+        public boolean isNamespaceAware() {
+            return parser.isNamespaceAware();
+        }
+
+        @Override
+        public boolean isValidating() {
+            return parser.isValidating();
+        }
+
+        @Override
+        public void setProperty( String name, Object value ) throws SAXNotRecognizedException, SAXNotSupportedException {
+            parser.setProperty( name, filtered( filter, name, value ));
+        }
+
+        @Override
+        public Object getProperty( String name ) throws SAXNotRecognizedException, SAXNotSupportedException {
+            return parser.getProperty( name );
+        }
+
+        @Override
+        public void reset() {
+            parser.reset();
+        }
+    }
+
+    /*
+     * Comments and CDATA sections of skipped sections must not be given to EMF either
+     */
+    private static Object filtered( SectionFilter filter, String name, Object value ) {
+        if(( filter != null ) && LEXICAL_HANDLER_PROPERTY.equals( name ) && ( value instanceof LexicalHandler )) {
+            filter.setLexicalHandler(( LexicalHandler ) value );
+            return filter;
+        }
+        return value;
+    }
+
+    private static class SclXMLReader implements XMLReader {
+
+        private XMLReader reader;
+        private ValidatorHandler validatorHandler;
+        private SectionFilter filter;
+        private ContentHandler contentHandler;
+
+        SclXMLReader( XMLReader reader, ValidatorHandler validatorHandler, SectionFilter filter ) {
+            this.reader = reader;
+            this.validatorHandler = validatorHandler;
+            this.filter = filter;
+        }
+
+        @Override
+        public void setContentHandler( ContentHandler handler ) {
+            contentHandler = handler;
+            if( handler == null ) {
+                reader.setContentHandler( null );
+                return;
+            }
+            if( filter != null ) {
+                filter.setContentHandler( handler );
+                handler = filter;
+            }
+            if( validatorHandler != null ) {
+                handler = new TeeContentHandler( validatorHandler, handler );
+            }
+            reader.setContentHandler( handler );
+        }
+
+        @Override
+        public ContentHandler getContentHandler() {
+            return contentHandler;
+        }
+
+        @Override
+        public void parse( InputSource input ) throws IOException, SAXException {
+            if( validatorHandler != null ) used.set( true );
+            if( filter != null ) filtered.set( true );
+            reader.parse( input );
+        }
+
+        @Override
+        public void parse( String systemId ) throws IOException, SAXException {
+            if( validatorHandler != null ) used.set( true );
+            if( filter != null ) filtered.set( true );
+            reader.parse( systemId );
+        }
+
+        @Override
+        public boolean getFeature( String name ) throws SAXNotRecognizedException, SAXNotSupportedException {
+            return reader.getFeature( name );
+        }
+
+        @Override
+        public void setFeature( String name, boolean value ) throws SAXNotRecognizedException, SAXNotSupportedException {
+            reader.setFeature( name, value );
+        }
+
+        @Override
+        public Object getProperty( String name ) throws SAXNotRecognizedException, SAXNotSupportedException {
+            return reader.getProperty( name );
+        }
+
+        @Override
+        public void setProperty( String name, Object value ) throws SAXNotRecognizedException, SAXNotSupportedException {
+            reader.setProperty( name, filtered( filter, name, value ));
+        }
+
+        @Override
+        public void setEntityResolver( EntityResolver resolver ) {
+            reader.setEntityResolver( resolver );
+        }
+
+        @Override
+        public EntityResolver getEntityResolver() {
+            return reader.getEntityResolver();
+        }
+
+        @Override
+        public void setDTDHandler( DTDHandler handler ) {
+            reader.setDTDHandler( handler );
+        }
+
+        @Override
+        public DTDHandler getDTDHandler() {
+            return reader.getDTDHandler();
+        }
+
+        @Override
+        public void setErrorHandler( ErrorHandler handler ) {
+            reader.setErrorHandler( handler );
+        }
+
+        @Override
+        public ErrorHandler getErrorHandler() {
+            return reader.getErrorHandler();
+        }
+    }
+
+    private static class TeeContentHandler implements ContentHandler {
+
+        private ContentHandler first;
+        private ContentHandler second;
+
+        TeeContentHandler( ContentHandler first, ContentHandler second ) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void setDocumentLocator( Locator locator ) {
+            first.setDocumentLocator( locator );
+            second.setDocumentLocator( locator );
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            first.startDocument();
+            second.startDocument();
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            first.endDocument();
+            second.endDocument();
+        }
+
+        @Override
+        public void startPrefixMapping( String prefix, String uri ) throws SAXException {
+            first.startPrefixMapping( prefix, uri );
+            second.startPrefixMapping( prefix, uri );
+        }
+
+        @Override
+        public void endPrefixMapping( String prefix ) throws SAXException {
+            first.endPrefixMapping( prefix );
+            second.endPrefixMapping( prefix );
+        }
+
+        @Override
+        public void startElement( String uri, String localName, String qName, Attributes atts ) throws SAXException {
+            first.startElement( uri, localName, qName, atts );
+            second.startElement( uri, localName, qName, atts );
+        }
+
+        @Override
+        public void endElement( String uri, String localName, String qName ) throws SAXException {
+            first.endElement( uri, localName, qName );
+            second.endElement( uri, localName, qName );
+        }
+
+        @Override
+        public void characters( char[] ch, int start, int length ) throws SAXException {
+            first.characters( ch, start, length );
+            second.characters( ch, start, length );
+        }
+
+        @Override
+        public void ignorableWhitespace( char[] ch, int start, int length ) throws SAXException {
+            first.ignorableWhitespace( ch, start, length );
+            second.ignorableWhitespace( ch, start, length );
+        }
+
+        @Override
+        public void processingInstruction( String target, String data ) throws SAXException {
+            first.processingInstruction( target, data );
+            second.processingInstruction( target, data );
+        }
+
+        @Override
+        public void skippedEntity( String name ) throws SAXException {
+            first.skippedEntity( name );
+            second.skippedEntity( name );
+        }
+    }
+
+    /*
+     * Children of the root element whose name is not in the selected sections are skipped with all their content.
+     * The Header is always kept.
+     */
+    private static class SectionFilter implements ContentHandler, LexicalHandler {
+
+        private Set< String > sections;
+        private ContentHandler contentHandler;
+        private LexicalHandler lexicalHandler;
+        private int depth;
+        private boolean skipping;
+
+        SectionFilter( Set< String > sections ) {
+            this.sections = sections;
+        }
+
+        void setContentHandler( ContentHandler contentHandler ) {
+            this.contentHandler = contentHandler;
+        }
+
+        void setLexicalHandler( LexicalHandler lexicalHandler ) {
+            this.lexicalHandler = lexicalHandler;
+        }
+
+        private static String nameOf( String localName, String qName ) {
+            if(( localName != null ) && ! localName.isEmpty() ) return localName;
+            return qName.substring( qName.indexOf( ':' ) + 1 );
+        }
+
+        @Override
+        public void setDocumentLocator( Locator locator ) {
+            contentHandler.setDocumentLocator( locator );
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            depth = 0;
+            skipping = false;
+            contentHandler.startDocument();
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            contentHandler.endDocument();
+        }
+
+        @Override
+        public void startPrefixMapping( String prefix, String uri ) throws SAXException {
+            contentHandler.startPrefixMapping( prefix, uri );
+        }
+
+        @Override
+        public void endPrefixMapping( String prefix ) throws SAXException {
+            contentHandler.endPrefixMapping( prefix );
+        }
+
+        @Override
+        public void startElement( String uri, String localName, String qName, Attributes atts ) throws SAXException {
+            ++depth;
+            if( skipping ) return;
+            if( depth == 2 ) {
+                String name = nameOf( localName, qName );
+                if( ! "Header".equals( name ) && ! sections.contains( name )) {
+                    skipping = true;
+                    return;
+                }
+            }
+            contentHandler.startElement( uri, localName, qName, atts );
+        }
+
+        @Override
+        public void endElement( String uri, String localName, String qName ) throws SAXException {
+            --depth;
+            if( skipping ) {
+                if( depth == 1 ) skipping = false;
+                return;
+            }
+            contentHandler.endElement( uri, localName, qName );
+        }
+
+        @Override
+        public void characters( char[] ch, int start, int length ) throws SAXException {
+            if( ! skipping ) contentHandler.characters( ch, start, length );
+        }
+
+        @Override
+        public void ignorableWhitespace( char[] ch, int start, int length ) throws SAXException {
+            if( ! skipping ) contentHandler.ignorableWhitespace( ch, start, length );
+        }
+
+        @Override
+        public void processingInstruction( String target, String data ) throws SAXException {
+            if( ! skipping ) contentHandler.processingInstruction( target, data );
+        }
+
+        @Override
+        public void skippedEntity( String name ) throws SAXException {
+            if( ! skipping ) contentHandler.skippedEntity( name );
+        }
+
+        @Override
+        public void startDTD( String name, String publicId, String systemId ) throws SAXException {
+            if( lexicalHandler != null ) lexicalHandler.startDTD( name, publicId, systemId );
+        }
+
+        @Override
+        public void endDTD() throws SAXException {
+            if( lexicalHandler != null ) lexicalHandler.endDTD();
+        }
+
+        @Override
+        public void startEntity( String name ) throws SAXException {
+            if( lexicalHandler != null ) lexicalHandler.startEntity( name );
+        }
+
+        @Override
+        public void endEntity( String name ) throws SAXException {
+            if( lexicalHandler != null ) lexicalHandler.endEntity( name );
+        }
+
+        @Override
+        public void startCDATA() throws SAXException {
+            if(( lexicalHandler != null ) && ! skipping ) lexicalHandler.startCDATA();
+        }
+
+        @Override
+        public void endCDATA() throws SAXException {
+            if(( lexicalHandler != null ) && ! skipping ) lexicalHandler.endCDATA();
+        }
+
+        @Override
+        public void comment( char[] ch, int start, int length ) throws SAXException {
+            if(( lexicalHandler != null ) && ! skipping ) lexicalHandler.comment( ch, start, length );
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+** 
+**  This file is part of the RiseClipse tool
+**  
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+
+/*
+ * Creation of an AppCDS archive for the runnable jar: a training validation is run in a child JVM
+ * with the other arguments given on the command line, and the classes it loads are archived.
+ * The training run must succeed, its SCL files should therefore be valid.
+ * Java 13 and later create a dynamic archive in a single run, Java 11 and 12 need a class list
+ * and a second JVM to dump a static archive.
+ * The JVM checks that the archive matches the jar it is used with, and ignores it otherwise.
+ */
+final class StartupArchive {
+
+    private static final String STARTUP_ARCHIVE_CATEGORY = "SCL/StartupArchive";
+
+    private StartupArchive() {}
+
+    static int create( @NonNull String archive, @NonNull List< @NonNull String > arguments, @NonNull IRiseClipseConsole console ) {
+        Path jar;
+        try {
+            jar = Paths.get( RiseClipseValidatorSCL.class.getProtectionDomain().getCodeSource().getLocation().toURI() );
+        }
+        catch( URISyntaxException | SecurityException e ) {
+            console.error( STARTUP_ARCHIVE_CATEGORY, 0, "Cannot find the location of the tool: ", e.getMessage() );
+            return 1;
+        }
+        if( ! Files.isRegularFile( jar )) {
+            console.error( STARTUP_ARCHIVE_CATEGORY, 0, "A startup archive can only be created for the runnable jar" );
+            return 1;
+        }
+        String java = Paths.get( System.getProperty( "java.home" ), "bin", "java" ).toString();
+        // The training run needs at least one argument, otherwise only the usage is displayed
+        List< String > training = new ArrayList<>( arguments );
+        if( training.isEmpty() ) training.add( "--do-not-display-copyright" );
+
+        Path archivePath = Paths.get( archive );
+        try {
+            // A previous archive must not be taken for the result of this run
+            Files.deleteIfExists( archivePath );
+            boolean created;
+            if( Runtime.version().feature() >= 13 ) {
+                List< String > command = new ArrayList<>( Arrays.asList( java, "-XX:ArchiveClassesAtExit=" + archive, "-jar", jar.toString() ));
+                command.addAll( training );
+                created = check( "training run", run( command ), console );
+            }
+            else {
+                Path classList = Files.createTempFile( "RiseClipseValidatorSCL", ".classlist" );
+                try {
+                    List< String > command = new ArrayList<>( Arrays.asList( java, "-Xshare:off", "-XX:DumpLoadedClassList=" + classList, "-jar", jar.toString() ));
+                    command.addAll( training );
+                    created = check( "training run", run( command ), console )
+                           && check( "archive dump", run( Arrays.asList( java, "-Xshare:dump", "-XX:SharedClassListFile=" + classList, "-XX:SharedArchiveFile=" + archive, "-cp", jar.toString() )), console );
+                }
+                finally {
+                    Files.deleteIfExists( classList );
+                }
+            }
+            if( ! created ) {
+                Files.deleteIfExists( archivePath );
+                return 1;
+            }
+        }
+        catch( IOException e ) {
+            console.error( STARTUP_ARCHIVE_CATEGORY, 0, "Cannot run the training JVM: ", e.getMessage() );
+            return 1;
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+
+        if( ! Files.isRegularFile( archivePath )) {
+            console.error( STARTUP_ARCHIVE_CATEGORY, 0, "Startup archive ", archive, " has not been created" );
+            return 1;
+        }
+        console.info( STARTUP_ARCHIVE_CATEGORY, 0, "Startup archive created, use it with: java -XX:SharedArchiveFile=", archive, " -jar ", jar );
+        return 0;
+    }
+
+    private static int run( List< String > command ) throws IOException, InterruptedException {
+        return new ProcessBuilder( command ).inheritIO().start().waitFor();
+    }
+
+    /*
+     * The training files must be valid: a failed validation cannot be told apart from a failed JVM
+     */
+    private static boolean check( String step, int exitCode, IRiseClipseConsole console ) {
+        if( exitCode == 0 ) return true;
+        console.error( STARTUP_ARCHIVE_CATEGORY, 0, "The ", step, " failed with exit code ", exitCode, ", no startup archive is created" );
+        return false;
+    }
+
+}
@@ -0,0 +1,297 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+**
+**  This file is part of the RiseClipse tool
+**
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.DA;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.DO;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.LNodeType;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.Val;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.utilities.SclModelLoader;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd.NsdValidator;
+import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
+import fr.centralesupelec.edf.riseclipse.util.Severity;
+
+/*
+ * NSD validation of an SCL file without building the whole model, used by the --nsd-only mode.
+ * NSD validation only looks at the LNodeTypes used by LNs, and at the types they refer to:
+ * - the file is first scanned with a streaming parser, a small record is kept for each distinct
+ *   (namespace, lnType) used by an LN or LN0, with the line of its first use;
+ * - then only the DataTypeTemplates section is loaded (see SclParserPool), and the LNodeType of each
+ *   record is given to the usual NSD validators.
+ * Memory therefore depends on the number of distinct types, not on the size of the file.
+ * The namespace of an LN is, in this order, the value of the lnNs DAI of its NamPlt DOI, the value of the lnNs DA
+ * of the NamPlt DO of its LNodeType, the value of the ldNs DAI of the NamPlt DOI of the LN0 of its LDevice,
+ * or the value of the ldNs DA of the NamPlt DO of the LNodeType of this LN0.
+ */
+final class StreamingNsdValidator {
+
+    private static final String VALIDATION_NSD_CATEGORY = "NSD/Validation";
+
+    // Used by the shared parser pool (see RiseClipseValidatorSCL.prepare())
+    static final Set< String > TEMPLATES_SECTION = Set.of( "DataTypeTemplates" );
+
+    private StreamingNsdValidator() {}
+
+    private static class LNRecord {
+        String lnType;
+        String lnClass;
+        // Values found in DOIs, null if not given
+        String lnNs;
+        String ldNs;
+        // Used when the namespace is only given in DataTypeTemplates
+        String ln0Type;
+        int line;
+    }
+
+    /*
+     * Returns true if no error was found.
+     * content is null if sclFile must be read, otherwise sclFile is used in messages instead of a filename.
+     * The load options must use a parser pool which only loads the DataTypeTemplates section.
+     */
+    static boolean validate( @NonNull String sclFile, ByteBuffer content, @NonNull NsdValidator nsdValidator, @NonNull SclModelLoader sclLoader,
+                             @NonNull Map< Object, Object > loadOptions, @NonNull IRiseClipseConsole console ) {
+        Map< String, LNRecord > records = scan( sclFile, content, console );
+        if( records == null ) return false;
+
+        sclLoader.reset();
+        sclLoader.getResourceSet().getLoadOptions().putAll( loadOptions );
+        Resource resource = ( content == null ) ? sclLoader.loadWithoutValidation( sclFile )
+                                                : RiseClipseValidatorSCL.load( sclLoader, content, sclFile );
+        if( resource == null ) return false;
+        if( ! SclParserPool.wasFiltered() ) {
+            console.warning( VALIDATION_NSD_CATEGORY, sclFile, 0, "the loader did not use the parser pool, the whole file has been loaded" );
+        }
+        // Needed for links between types
+        sclLoader.finalizeLoad( console );
+
+        HashMap< String, LNodeType > lNodeTypes = new HashMap<>();
+        for( TreeIterator< EObject > it = resource.getAllContents(); it.hasNext(); ) {
+            EObject object = it.next();
+            if( object instanceof LNodeType ) {
+                LNodeType lNodeType = ( LNodeType ) object;
+                lNodeTypes.putIfAbsent( lNodeType.getId(), lNodeType );
+                // Nothing to look for inside an LNodeType
+                it.prune();
+            }
+        }
+
+        nsdValidator.reset();
+        BasicDiagnostic diagnostics = new BasicDiagnostic();
+        for( LNRecord record : records.values() ) {
+            LNodeType lNodeType = lNodeTypes.get( record.lnType );
+            if( lNodeType == null ) {
+                RiseClipseMessage warning = RiseClipseMessage.warning( VALIDATION_NSD_CATEGORY, sclFile, record.line,
+                        "AnyLN type=\"", record.lnType, "\" class=\"", record.lnClass, "\" has no associated LNodeType" );
+                diagnostics.add( new BasicDiagnostic( Diagnostic.WARNING, RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE, 0,
+                                                      warning.getMessage(), new Object[] { null, warning } ));
+                continue;
+            }
+            String namespace = namespaceOf( record, lNodeType, lNodeTypes );
+            if(( namespace == null ) || namespace.isEmpty() ) {
+                RiseClipseMessage warning = RiseClipseMessage.warning( VALIDATION_NSD_CATEGORY, sclFile, record.line,
+                        "AnyLN type=\"", record.lnType, "\" class=\"", record.lnClass, "\" has no namespace" );
+                diagnostics.add( new BasicDiagnostic( Diagnostic.WARNING, RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE, 0,
+                                                      warning.getMessage(), new Object[] { null, warning } ));
+                continue;
+            }
+            nsdValidator.validateLNodeType( lNodeType, namespace, diagnostics );
+        }
+
+        boolean result = true;
+        for( Diagnostic diagnostic : diagnostics.getChildren() ) {
+            List< ? > data = diagnostic.getData();
+            if(( data.size() == 2 ) && ( data.get( 1 ) instanceof RiseClipseMessage )) {
+                RiseClipseMessage message = ( RiseClipseMessage ) data.get( 1 );
+                if( message.getSeverity().compareTo( Severity.ERROR ) <= 0 ) {
+                    result = false;
+                }
+                console.output( message );
+            }
+        }
+
+        // The templates are no more needed
+        for( Iterator< Resource > it = sclLoader.getResourceSet().getResources().iterator(); it.hasNext(); ) {
+            it.next().unload();
+        }
+        return result;
+    }
+
+    /*
+     * Same order as AnyLN.getNamespace()
+     */
+    private static String namespaceOf( LNRecord record, LNodeType lNodeType, Map< String, LNodeType > lNodeTypes ) {
+        if( record.lnNs != null ) return record.lnNs;
+        String namespace = namePlateValue( lNodeType, "lnNs" );
+        if( namespace != null ) return namespace;
+        if( record.ldNs != null ) return record.ldNs;
+        if( record.ln0Type == null ) return null;
+        LNodeType ln0Type = lNodeTypes.get( record.ln0Type );
+        if( ln0Type == null ) return null;
+        return namePlateValue( ln0Type, "ldNs" );
+    }
+
+    /*
+     * Value of the given DA of the NamPlt DO, null if not given
+     */
+    private static String namePlateValue( LNodeType lNodeType, String daName ) {
+        for( DO do_ : lNodeType.getDO() ) {
+            if( ! "NamPlt".equals( do_.getName() ) || ( do_.getRefersToDOType() == null )) continue;
+            for( DA da : do_.getRefersToDOType().getDA() ) {
+                if( ! daName.equals( da.getName() )) continue;
+                for( Val val : da.getVal() ) {
+                    if(( val.getValue() != null ) && ! val.getValue().trim().isEmpty() ) return val.getValue().trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Key is namespaces and lnType, returns null if the file cannot be read
+     */
+    private static Map< String, LNRecord > scan( String sclFile, ByteBuffer content, IRiseClipseConsole console ) {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+        factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+
+        Map< String, LNRecord > records = new LinkedHashMap<>();
+        try( InputStream in = ( content == null ) ? Files.newInputStream( Paths.get( sclFile )) : XSDValidator.inputStreamOf( content )) {
+            XMLStreamReader reader = factory.createXMLStreamReader( in );
+            try {
+                String ldNs = null;
+                String ln0Type = null;
+                LNRecord current = null;
+                boolean inLN0 = false;
+                String lnNs = null;
+                boolean inNamPlt = false;
+                String daiName = null;
+                boolean inVal = false;
+                StringBuilder value = new StringBuilder();
+                while( reader.hasNext() ) {
+                    switch( reader.next() ) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        switch( reader.getLocalName() ) {
+                        case "LDevice":
+                            ldNs = null;
+                            ln0Type = null;
+                            break;
+                        case "LN0":
+                        case "LN":
+                            current = new LNRecord();
+                            current.lnType = reader.getAttributeValue( null, "lnType" );
+                            current.lnClass = reader.getAttributeValue( null, "lnClass" );
+                            current.line = reader.getLocation().getLineNumber();
+                            inLN0 = "LN0".equals( reader.getLocalName() );
+                            if( inLN0 ) ln0Type = current.lnType;
+                            lnNs = null;
+                            break;
+                        case "DOI":
+                            inNamPlt = ( current != null ) && "NamPlt".equals( reader.getAttributeValue( null, "name" ));
+                            break;
+                        case "DAI":
+                            daiName = inNamPlt ? reader.getAttributeValue( null, "name" ) : null;
+                            break;
+                        case "Val":
+                            if(( "ldNs".equals( daiName ) && inLN0) || "lnNs".equals( daiName )) {
+                                inVal = true;
+                                value.setLength( 0 );
+                            }
+                            break;
+                        default:
+                            break;
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if( inVal ) value.append( reader.getText() );
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        switch( reader.getLocalName() ) {
+                        case "Val":
+                            if( inVal ) {
+                                inVal = false;
+                                if( "ldNs".equals( daiName )) ldNs = value.toString().trim();
+                                else lnNs = value.toString().trim();
+                            }
+                            break;
+                        case "DAI":
+                            daiName = null;
+                            break;
+                        case "DOI":
+                            inNamPlt = false;
+                            break;
+                        case "LN0":
+                        case "LN":
+                            if(( current != null ) && ( current.lnType != null )) {
+                                current.lnNs = lnNs;
+                                current.ldNs = ldNs;
+                                current.ln0Type = ln0Type;
+                                records.putIfAbsent( lnNs + "\u0000" + ldNs + "\u0000" + ln0Type + "\u0000" + current.lnType, current );
+                            }
+                            current = null;
+                            break;
+                        default:
+                            break;
+                        }
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch( IOException | XMLStreamException e ) {
+            console.error( VALIDATION_NSD_CATEGORY, sclFile, 0, "cannot scan file: ", e.getMessage() );
+            return null;
+        }
+        return records;
+    }
+
+}
@@ -21,20 +21,37 @@
 
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
 
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
@@ -43,31 +60,198 @@ import org.xml.sax.SAXParseException;
 
 import fr.centralesupelec.edf.riseclipse.util.AbstractRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
+import fr.centralesupelec.edf.riseclipse.util.Severity;
 
 public class XSDValidator {
 
     private static final String VALIDATION_XSD_CATEGORY = "XSD/Validation";
+    private static final String SCL_XSD_FILE = "SCL.xsd";
+    private static final String SCL2003_DIRECTORY = "2003";
     
-    private static Validator xsdValidator;
+    // Compiled schemas are kept, a schema is identified by the canonical path and the modification time of its file
+    private static HashMap< String, Schema > schemas = new HashMap<>();
+    // When the given schema is a directory, it has a sub-directory for each version of SCL (2003, 2007A, 2007B, 2007B4…)
+    // containing an SCL.xsd file. The schema of a version is compiled when a file of this version is first validated.
+    private static Path schemaDirectory;
+    private static HashMap< String, Schema > versionSchemas = new HashMap<>();
+    // A Schema is thread-safe, a Validator is not: each thread gets its own for each schema
+    private static ThreadLocal< IdentityHashMap< Schema, Validator > > xsdValidators;
+    // null when the given schema is a directory
+    private static Schema currentSchema;
 
     public static void prepare( String xsdFile ) {
         
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         
+        xsdValidators = null;
+        currentSchema = null;
+        schemaDirectory = null;
+        synchronized( versionSchemas ) {
+            versionSchemas.clear();
+        }
+        if( ! CategoryFilter.isEnabled( VALIDATION_XSD_CATEGORY )) return;
+
+        if( Files.isDirectory( Paths.get( xsdFile ))) {
+            schemaDirectory = Paths.get( xsdFile );
+        }
+        else {
+            currentSchema = getSchema( xsdFile, console );
+            if( currentSchema == null ) return;
+        }
+        xsdValidators = ThreadLocal.withInitial( IdentityHashMap::new );
+    }
+
+    /*
+     * Used to validate a file while it is parsed for another purpose (see SclParserPool),
+     * returns null if XSD validation is not prepared or skipped, or if the schema depends on the file
+     */
+    static ValidatorHandler newValidatorHandler() {
+        if( currentSchema == null ) return null;
+        ValidatorHandler handler = currentSchema.newValidatorHandler();
+        handler.setErrorHandler( newErrorHandler( AbstractRiseClipseConsole.getConsole() ));
+        return handler;
+    }
+
+    private static synchronized Schema getSchema( String xsdFile, IRiseClipseConsole console ) {
+        String key = schemaKey( xsdFile );
+        Schema schema = ( key == null ) ? null : schemas.get( key );
+        if( schema != null ) return schema;
+
         SchemaFactory factory = SchemaFactory.newInstance( XMLConstants.W3C_XML_SCHEMA_NS_URI );
 
         Source schemaFile = new StreamSource( new File( xsdFile ) );
-        Schema schema;
         try {
             schema = factory.newSchema( schemaFile );
-            xsdValidator = schema.newValidator();
         }
         catch( SAXException e ) {
             console.error( VALIDATION_XSD_CATEGORY, 0, "SAXException: ", e.getMessage() );
-            return;
+            return null;
         }
-        
-        xsdValidator.setErrorHandler( new ErrorHandler() {
+        if( key != null ) schemas.put( key, schema );
+        return schema;
+    }
+
+    /*
+     * Reading the XSD files to identify the schema would cost nearly as much as compiling it
+     */
+    private static String schemaKey( String xsdFile ) {
+        try {
+            File file = new File( xsdFile ).getCanonicalFile();
+            return file.getPath() + "@" + file.lastModified();
+        }
+        catch( IOException e ) {
+            return null;
+        }
+    }
+
+    /*
+     * What is validated: a file or some bytes in memory. It may be opened twice (to look for the SCL version, then to validate).
+     */
+    private interface Content {
+        InputStream open() throws IOException;
+    }
+
+    private static Content contentOf( String sclFile ) {
+        return () -> Files.newInputStream( Paths.get( sclFile ));
+    }
+
+    private static Content contentOf( ByteBuffer content ) {
+        return () -> inputStreamOf( content );
+    }
+
+    /*
+     * The position of the buffer is not changed
+     */
+    static InputStream inputStreamOf( ByteBuffer content ) {
+        ByteBuffer buffer = content.duplicate();
+        if( buffer.hasArray() ) {
+            return new ByteArrayInputStream( buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() );
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get( bytes );
+        return new ByteArrayInputStream( bytes );
+    }
+
+    private static Validator getValidator( Content content, ErrorHandler errorHandler ) throws IOException, SAXException {
+        Schema schema = ( schemaDirectory == null ) ? currentSchema : getVersionSchema( content );
+        Validator validator = xsdValidators.get().computeIfAbsent( schema, Schema::newValidator );
+        validator.reset();
+        validator.setErrorHandler( errorHandler );
+        return validator;
+    }
+
+    private static Schema getVersionSchema( Content content ) throws IOException, SAXException {
+        List< String > versions = sclVersionsOf( content );
+        synchronized( versionSchemas ) {
+            for( String version : versions ) {
+                Schema schema;
+                if( versionSchemas.containsKey( version )) {
+                    schema = versionSchemas.get( version );
+                }
+                else {
+                    Path xsdPath = schemaDirectory.resolve( version ).resolve( SCL_XSD_FILE );
+                    schema = Files.isReadable( xsdPath ) ? getSchema( xsdPath.toString(), AbstractRiseClipseConsole.getConsole() ) : null;
+                    versionSchemas.put( version, schema );
+                }
+                if( schema != null ) return schema;
+            }
+        }
+        throw new SAXException( "no XML schema for SCL version " + versions.get( 0 ) + " in " + schemaDirectory );
+    }
+
+    /*
+     * Looks only at the attributes of the root element.
+     * Returns the possible names of the schema sub-directory, the most specific first:
+     * 2007B4, 2007B and 2007 for version="2007" revision="B" release="4", 2003 if there is no version
+     */
+    private static List< String > sclVersionsOf( Content content ) throws IOException, SAXException {
+        List< String > versions = new ArrayList<>();
+        String version = null;
+        String revision = null;
+        String release = null;
+        try( InputStream in = content.open() ) {
+            XMLStreamReader reader = newXMLInputFactory().createXMLStreamReader( in );
+            try {
+                while( reader.hasNext() ) {
+                    if( reader.next() == XMLStreamConstants.START_ELEMENT ) {
+                        version = reader.getAttributeValue( null, "version" );
+                        revision = reader.getAttributeValue( null, "revision" );
+                        release = reader.getAttributeValue( null, "release" );
+                        break;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch( XMLStreamException e ) {
+            throw new SAXException( e.getMessage(), e );
+        }
+
+        if( version == null ) {
+            versions.add( SCL2003_DIRECTORY );
+            return versions;
+        }
+        version = version.trim();
+        if( revision != null ) {
+            if( release != null ) versions.add( version + revision.trim() + release.trim() );
+            versions.add( version + revision.trim() );
+        }
+        versions.add( version );
+        return versions;
+    }
+
+    private static XMLInputFactory newXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+        factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+        return factory;
+    }
+
+    private static ErrorHandler newErrorHandler( IRiseClipseConsole console ) {
+        return new ErrorHandler() {
 
             @Override
             public void warning( SAXParseException exception ) {
@@ -88,30 +272,226 @@ public class XSDValidator {
                 console.error( VALIDATION_XSD_CATEGORY, 0, "fatal error for schema validation, stopping" );
                 return;
             }
-        } );
-
+        };
     }
 
     public static void validate( String sclFile ) {
+        validate( contentOf( sclFile ), sclFile );
+    }
+
+    /*
+     * The name is used in messages instead of a filename
+     */
+    public static void validate( ByteBuffer content, String name ) {
+        validate( contentOf( content ), name );
+    }
+
+    /*
+     * The stream is read completely and kept in memory
+     */
+    public static void validate( InputStream content, String name ) {
+        try {
+            validate( ByteBuffer.wrap( content.readAllBytes() ), name );
+        }
+        catch( IOException e ) {
+            AbstractRiseClipseConsole.getConsole().error( VALIDATION_XSD_CATEGORY, name, 0, "IOException: " + e.getMessage() );
+        }
+    }
+
+    private static void validate( Content content, String name ) {
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         
-        xsdValidator.reset();
+        // Not prepared or skipped
+        if( xsdValidators == null ) return;
+
+        try {
+            validate( content, newErrorHandler( console ));
+        }
+        catch( IOException e ) {
+            console.error( VALIDATION_XSD_CATEGORY, name, 0, "IOException: " + e.getMessage() );
+        }
+        catch( SAXException e ) {
+            console.error( VALIDATION_XSD_CATEGORY, name, 0, "SAXException: " + e.getMessage() );
+        }
+    }
+
+    /*
+     * Same as validate( sclFile ), but messages are kept instead of being output, so that this may be done
+     * on another thread while the file is loaded. Messages are returned sorted by line and column.
+     */
+    public static List< RiseClipseMessage > validateAndCollect( String sclFile ) {
+        return validateAndCollect( contentOf( sclFile ), sclFile );
+    }
+
+    public static List< RiseClipseMessage > validateAndCollect( ByteBuffer content, String name ) {
+        return validateAndCollect( contentOf( content ), name );
+    }
+
+    private static List< RiseClipseMessage > validateAndCollect( Content content, String name ) {
+        // Not prepared or skipped
+        if( xsdValidators == null ) return new ArrayList<>();
+
+        List< LocatedMessage > messages = new ArrayList<>();
 
         try {
-            Path sclPath = Paths.get( sclFile );
-            Reader reader = Files.newBufferedReader( sclPath );
+            validate( content, newCollectingErrorHandler( messages ));
+        }
+        catch( IOException e ) {
+            // Sorted after the others, as when messages are output directly
+            messages.add( new LocatedMessage( Integer.MAX_VALUE, 0, new RiseClipseMessage( Severity.ERROR, VALIDATION_XSD_CATEGORY, name, 0, "IOException: " + e.getMessage() )));
+        }
+        catch( SAXException e ) {
+            messages.add( new LocatedMessage( Integer.MAX_VALUE, 0, new RiseClipseMessage( Severity.ERROR, VALIDATION_XSD_CATEGORY, name, 0, "SAXException: " + e.getMessage() )));
+        }
+
+        messages.sort( Comparator.comparingInt( ( LocatedMessage m ) -> m.line ).thenComparingInt( m -> m.column ));
+        List< RiseClipseMessage > result = new ArrayList<>( messages.size() );
+        for( LocatedMessage m : messages ) {
+            result.add( m.message );
+        }
+        return result;
+    }
+
+    private static void validate( Content content, ErrorHandler errorHandler ) throws IOException, SAXException {
+        Validator validator = getValidator( content, errorHandler );
+
+        // Same as Files.newBufferedReader()
+        try( Reader reader = new BufferedReader( new InputStreamReader( content.open(), StandardCharsets.UTF_8 ))) {
             removeBOM( reader );
             SAXSource source = new SAXSource( new InputSource( reader ) );
-            xsdValidator.validate( source );
-            reader.close();        
+            validator.validate( source );
+        }
+    }
+
+    /*
+     * Validation without building the model, for the --xsd-only mode: the file is read with a streaming
+     * StAX parser, so memory use does not depend on its size. At most maxMessages messages are kept
+     * (no limit if maxMessages <= 0), validation stops when this limit is reached or after a fatal error.
+     * This may be called concurrently for different files. Messages are in document order and have the filename.
+     */
+    public static List< RiseClipseMessage > validateStreaming( String sclFile, int maxMessages ) {
+        return validateStreaming( contentOf( sclFile ), sclFile, maxMessages );
+    }
+
+    public static List< RiseClipseMessage > validateStreaming( ByteBuffer content, String name, int maxMessages ) {
+        return validateStreaming( contentOf( content ), name, maxMessages );
+    }
+
+    private static List< RiseClipseMessage > validateStreaming( Content content, String sclFile, int maxMessages ) {
+        List< RiseClipseMessage > messages = new ArrayList<>();
+
+        // Not prepared or skipped
+        if( xsdValidators == null ) return messages;
+
+        try( InputStream in = content.open() ) {
+            Validator validator = getValidator( content, newLimitedErrorHandler( sclFile, messages, maxMessages ));
+            // Unlike a Reader, a byte stream lets the parser handle the BOM and the declared encoding
+            XMLStreamReader reader = newXMLInputFactory().createXMLStreamReader( sclFile, in );
+            try {
+                validator.validate( new StAXSource( reader ));
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch( TooManyMessagesException e ) {
+            messages.add( new RiseClipseMessage( Severity.WARNING, VALIDATION_XSD_CATEGORY, sclFile, 0,
+                                                 "more than " + maxMessages + " messages, schema validation stopped" ));
+        }
+        catch( SAXParseException e ) {
+            // Already added by the error handler
+            messages.add( new RiseClipseMessage( Severity.ERROR, VALIDATION_XSD_CATEGORY, sclFile, 0, "fatal error for schema validation, stopping" ));
         }
         catch( IOException e ) {
-            console.error( VALIDATION_XSD_CATEGORY, 0, "IOException: " + e.getMessage() );
+            messages.add( new RiseClipseMessage( Severity.ERROR, VALIDATION_XSD_CATEGORY, sclFile, 0, "IOException: " + e.getMessage() ));
+        }
+        catch( XMLStreamException e ) {
+            messages.add( new RiseClipseMessage( Severity.ERROR, VALIDATION_XSD_CATEGORY, sclFile, 0, "XMLStreamException: " + e.getMessage() ));
         }
         catch( SAXException e ) {
-            console.error( VALIDATION_XSD_CATEGORY, 0, "SAXException: " + e.getMessage() );
+            messages.add( new RiseClipseMessage( Severity.ERROR, VALIDATION_XSD_CATEGORY, sclFile, 0, "SAXException: " + e.getMessage() ));
+        }
+        return messages;
+    }
+
+    private static class TooManyMessagesException extends SAXException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static ErrorHandler newLimitedErrorHandler( String sclFile, List< RiseClipseMessage > messages, int maxMessages ) {
+        return new ErrorHandler() {
+
+            private void add( Severity severity, SAXParseException exception ) throws SAXException {
+                if(( maxMessages > 0 ) && ( messages.size() >= maxMessages )) {
+                    throw new TooManyMessagesException();
+                }
+                messages.add( new RiseClipseMessage( severity, VALIDATION_XSD_CATEGORY, sclFile, exception.getLineNumber(),
+                                                     exception.getMessage() + "(column: " + exception.getColumnNumber() + ")" ));
+            }
+
+            @Override
+            public void warning( SAXParseException exception ) throws SAXException {
+                add( Severity.WARNING, exception );
+            }
+
+            @Override
+            public void error( SAXParseException exception ) throws SAXException {
+                add( Severity.ERROR, exception );
+            }
+
+            @Override
+            public void fatalError( SAXParseException exception ) throws SAXException {
+                add( Severity.ERROR, exception );
+                // Nothing useful can be found after a fatal error
+                throw exception;
+            }
+        };
+    }
+
+    private static class LocatedMessage {
+        final int line;
+        final int column;
+        final RiseClipseMessage message;
+
+        LocatedMessage( int line, int column, RiseClipseMessage message ) {
+            this.line = line;
+            this.column = column;
+            this.message = message;
         }
     }
+
+    private static ErrorHandler newCollectingErrorHandler( List< LocatedMessage > messages ) {
+        return new ErrorHandler() {
+
+            private void add( Severity severity, SAXParseException exception, int line, String message ) {
+                messages.add( new LocatedMessage( exception.getLineNumber(), exception.getColumnNumber(),
+                                                  new RiseClipseMessage( severity, VALIDATION_XSD_CATEGORY, line, message )));
+            }
+
+            private void add( Severity severity, SAXParseException exception ) {
+                add( severity, exception, exception.getLineNumber(),
+                     exception.getMessage() + "(column: " + exception.getColumnNumber() + ")" );
+            }
+
+            @Override
+            public void warning( SAXParseException exception ) {
+                add( Severity.WARNING, exception );
+            }
+
+            @Override
+            public void error( SAXParseException exception ) {
+                add( Severity.ERROR, exception );
+            }
+
+            @Override
+            public void fatalError( SAXParseException exception ) {
+                add( Severity.ERROR, exception );
+                // Sorted just after the fatal error, but displayed without line as in validate( sclFile )
+                add( Severity.ERROR, exception, 0, "fatal error for schema validation, stopping" );
+                return;
+            }
+        };
+    }
     
     // From https://stackoverflow.com/questions/5353783/why-org-apache-xerces-parsers-saxparser-does-not-skip-bom-in-utf8-encoded-xml
     
@@ -523,14 +523,6 @@ public abstract class BasicTypeValidator extends TypeValidator {
         return name;
     }
     
-    /*
-     * Called before another file is validated
-     */
-    @Override
-    public void reset() {
-        // Nothing
-    }
-    
     @Override
     public boolean validateAbstractDataAttribute( AbstractDataAttribute ada, DiagnosticChain diagnostics ) {
         AbstractRiseClipseConsole.getConsole().debug( BASIC_TYPE_VALIDATION_NSD_CATEGORY, ada.getFilename(), ada.getLineNumber(),
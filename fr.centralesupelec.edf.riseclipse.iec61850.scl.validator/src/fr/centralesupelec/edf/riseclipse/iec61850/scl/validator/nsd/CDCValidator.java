@@ -21,7 +21,7 @@
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
 import java.util.IdentityHashMap;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -43,6 +43,7 @@ import fr.centralesupelec.edf.riseclipse.iec61850.scl.DO;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.DOType;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.FCEnum;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.SDO;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.CategoryFilter;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.RiseClipseValidatorSCL;
 import fr.centralesupelec.edf.riseclipse.util.AbstractRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
@@ -58,43 +59,38 @@ public class CDCValidator {
     // (see DataObjectImpl.createParameterizedComponents()).
     // The CDCImpl class ensure uniqueness of a given parameterized CDC (see CDCImpl.getParameterizedCDC()).
     // Therefore, we look for the CDCValidator using the CDC object.
-    private static IdentityHashMap< NsIdentificationObject, CDCValidator > validators = new IdentityHashMap<>();
+    // A validator is built when its CDC is first looked up
+    private static NsResolutionTable< CDC, CDCValidator > validators = new NsResolutionTable<>( true );
     
     public static Pair< CDCValidator, NsIdentification > get( NsIdentification nsIdentification, CDC cdc ) {
-        NsIdentification nsId = nsIdentification;
-        CDCValidator cdcValidator = null;
-        while(( cdcValidator == null ) && ( nsId != null )) {
-            cdcValidator = validators.get( NsIdentificationObject.of( nsId, cdc ));
-            nsIdentification = nsId;
-            nsId = nsId.getDependsOn();
-        }
-        return Pair.of( cdcValidator, nsIdentification );
+        return validators.get( nsIdentification, cdc );
     }
     
-    public static void buildValidators( NsIdentification nsIdentification, Stream< CDC > stream, IRiseClipseConsole console ) {
+    public static void declareValidators( NsIdentification nsIdentification, Stream< CDC > stream ) {
         stream
-        .forEach( cdc -> validators.put(
-                NsIdentificationObject.of( nsIdentification, cdc ),
-                new CDCValidator( nsIdentification, cdc, console )));
+        .forEach( cdc -> validators.declare(
+                nsIdentification,
+                cdc,
+                () -> NsdValidator.buildValidator( console -> new CDCValidator( nsIdentification, cdc, console )) ));
     }
 
     /*
-     * Called before another file is validated
+     * Validation of a DOType is not needed if all validations below a CDC are skipped
      */
-    public static void resetValidators() {
-        validators.values().stream().forEach( v -> v.reset() );
-    }
-
-    public void reset() {
-        validatedDOType = new HashSet<>();
-        
-//        dataAttributeTypeValidatorMap.values().stream().forEach( v -> v.reset() );
-//        subDataObjectValidatorMap.values().stream().forEach( v -> v.reset() );
+    static boolean isEnabled() {
+        return CategoryFilter.isEnabled( CDC_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( DataAttributePresenceConditionValidator.DA_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( SubDataObjectPresenceConditionValidator.SDO_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( FunctionalConstraintValidator.FC_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( BasicTypeValidator.BASIC_TYPE_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( EnumerationValidator.ENUMERATION_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( ConstructedAttributeValidator.CA_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( SubDataAttributePresenceConditionValidator.SDA_VALIDATION_NSD_CATEGORY );
     }
 
     private NsIdentification nsIdentification;
     private CDC cdc;
-    private HashSet< String > validatedDOType; 
+    private ValidatedSet< String > validatedDOType = new ValidatedSet<>();
 
     // CDC defines a set of DataAttribute, SubDataObject, ServiceParameter
     // Each DataAttribute has a name, a type (basic, enumerated or constructed), a functional constraint and a presence condition
@@ -109,8 +105,8 @@ public class CDCValidator {
     private SubDataObjectPresenceConditionValidator subDataObjectPresenceConditionValidator;
     
     // Key is DataAttribute name (the corresponding DA has the same name)
-    // Value is the TypeValidator given by the DataAttribute type
-    private IdentityHashMap< NsIdentificationName, TypeValidator > dataAttributeTypeValidatorMap;
+    // Value is the TypeValidator given by the DataAttribute type, found in this namespace or in one it depends on
+    private HashMap< String, TypeValidator > dataAttributeTypeValidators;
     // Key is DataAttribute name (the corresponding DA has the same name)
     // Value is the FunctionalConstraintValidator given by the DataAttribute fc
     // TODO: not used?
@@ -139,7 +135,7 @@ public class CDCValidator {
         this.nsIdentification = nsIdentification;
         this.dataAttributePresenceConditionValidator = DataAttributePresenceConditionValidator.get( nsIdentification, cdc );
         this.subDataObjectPresenceConditionValidator = SubDataObjectPresenceConditionValidator.get( nsIdentification, cdc );
-        this.dataAttributeTypeValidatorMap = new IdentityHashMap<>();
+        this.dataAttributeTypeValidators = new HashMap<>();
         this.dataAttributeFunctionalConstraintValidatorMap = new IdentityHashMap<>();
         this.subDataObjectValidatorMap = new IdentityHashMap<>();
         
@@ -154,7 +150,7 @@ public class CDCValidator {
             if( type != null ) {
                 Pair< TypeValidator, NsIdentification > typeValidator = TypeValidator.get( this.nsIdentification, type );
                 if(( typeValidator != null ) && ( typeValidator.getLeft() != null )) {
-                    dataAttributeTypeValidatorMap.put( NsIdentificationName.of( typeValidator.getRight(), da.getName() ), typeValidator.getLeft() );
+                    dataAttributeTypeValidators.put( da.getName(), typeValidator.getLeft() );
                     console.info( CDC_SETUP_NSD_CATEGORY, da.getFilename(), da.getLineNumber(),
                                   "type validator for DataAttribute ", da.getName(), " found with type ", da.getType(),
                                   " in namespace \"", typeValidator.getRight(), "\"" );
@@ -202,8 +198,6 @@ public class CDCValidator {
                                  "CDC not found for SubDataObject ", sdo.getName(), " in namespace \"", this.nsIdentification, "\"" );
             }
         }
-        
-        reset();
     }
     
     public String getName() {
@@ -211,70 +205,73 @@ public class CDCValidator {
     }
 
     private boolean validateDOType( DOType doType, DiagnosticChain diagnostics ) {
-        if( validatedDOType.contains( doType.getId() )) return true;
+        if( ! validatedDOType.add( doType.getId() )) return true;
         @NonNull
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         console.debug( CDC_VALIDATION_NSD_CATEGORY, doType.getFilename(), doType.getLineNumber(),
                        "CDCValidator( ", getName(), " ).validateDOType( ", doType.getId(), " ) in namespace \"", nsIdentification, "\"" );
-        validatedDOType.add( doType.getId() );
         
-        dataAttributePresenceConditionValidator.resetModelData();
+        boolean res = true;
+        if( CategoryFilter.isEnabled( DataAttributePresenceConditionValidator.DA_VALIDATION_NSD_CATEGORY )) {
+            dataAttributePresenceConditionValidator.resetModelData();
         
-        doType
-        .getDA()
-        .stream()
-        .forEach( d -> dataAttributePresenceConditionValidator.addModelData( d, d.getName(), diagnostics ));
+            doType
+            .getDA()
+            .stream()
+            .forEach( d -> dataAttributePresenceConditionValidator.addModelData( d, d.getName(), diagnostics ));
       
-        boolean res = dataAttributePresenceConditionValidator.validate( doType, diagnostics );
+            res = dataAttributePresenceConditionValidator.validate( doType, diagnostics );
+        }
         
-        subDataObjectPresenceConditionValidator.resetModelData();
+        if( CategoryFilter.isEnabled( SubDataObjectPresenceConditionValidator.SDO_VALIDATION_NSD_CATEGORY )) {
+            subDataObjectPresenceConditionValidator.resetModelData();
         
-        doType
-        .getSDO()
-        .stream()
-        .forEach( sdo -> {
-            if(( sdo.getNamespace() == null ) || nsIdentification.equals( NsIdentification.of( sdo.getNamespace() ))) {
-                subDataObjectPresenceConditionValidator.addModelData( sdo, sdo.getName(), diagnostics );
-            }
-            else {
-                RiseClipseMessage warning = RiseClipseMessage.warning( CDC_VALIDATION_NSD_CATEGORY, sdo.getFilename(), sdo.getLineNumber(), 
-                        "Presence condition of SDO ", sdo.getName(),
-                        " is not checked because its namespace \"", sdo.getNamespace(),
-                        "\" is not the same as the namespace of its DOType \"", nsIdentification, "\"" );
-                diagnostics.add( new BasicDiagnostic(
-                        Diagnostic.WARNING,
-                        RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                        0,
-                        warning.getMessage(),
-                        new Object[] { sdo, warning } ));
-            }
-        });
+            doType
+            .getSDO()
+            .stream()
+            .forEach( sdo -> {
+                if(( sdo.getNamespace() == null ) || nsIdentification.equals( NsResolutionTable.namespaceOf( sdo.getNamespace() ))) {
+                    subDataObjectPresenceConditionValidator.addModelData( sdo, sdo.getName(), diagnostics );
+                }
+                else {
+                    RiseClipseMessage warning = RiseClipseMessage.warning( CDC_VALIDATION_NSD_CATEGORY, sdo.getFilename(), sdo.getLineNumber(), 
+                            "Presence condition of SDO ", sdo.getName(),
+                            " is not checked because its namespace \"", sdo.getNamespace(),
+                            "\" is not the same as the namespace of its DOType \"", nsIdentification, "\"" );
+                    diagnostics.add( new BasicDiagnostic(
+                            Diagnostic.WARNING,
+                            RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                            0,
+                            warning.getMessage(),
+                            new Object[] { sdo, warning } ));
+                }
+            });
         
-        res = subDataObjectPresenceConditionValidator.validate( doType, diagnostics ) && res;
+            res = subDataObjectPresenceConditionValidator.validate( doType, diagnostics ) && res;
+        }
         
+        boolean typesEnabled = TypeValidator.isEnabled();
         for( DA da : doType.getDA() ) {
-            TypeValidator typeValidator = null;
-            NsIdentification nsId = nsIdentification;
-            while(( typeValidator == null ) && ( nsId != null )) {
-                typeValidator = dataAttributeTypeValidatorMap.get( NsIdentificationName.of( nsId, da.getName() ));
-                nsId = nsId.getDependsOn();
-            }
-            if( typeValidator != null ) {
-                typeValidator.validateAbstractDataAttribute( da, diagnostics );
-            }
-            else {
-                String daType = ( da.getType() == null ) ? ( " of bType " + da.getBType() ) : ( " of type " + da.getType() );
-                RiseClipseMessage error = RiseClipseMessage.warning( CDC_VALIDATION_NSD_CATEGORY, da.getFilename(), da.getLineNumber(), 
-                        "DA ", da.getName(), daType,
-                        " cannot be verified because there is no validator for it in namespace \"", nsIdentification, "\"" );
-                diagnostics.add( new BasicDiagnostic(
-                        Diagnostic.ERROR,
-                        RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                        0,
-                        error.getMessage(),
-                        new Object[] { da, error } ));
+            if( typesEnabled ) {
+                TypeValidator typeValidator = dataAttributeTypeValidators.get( da.getName() );
+                if( typeValidator != null ) {
+                    typeValidator.validateAbstractDataAttribute( da, diagnostics );
+                }
+                else {
+                    String daType = ( da.getType() == null ) ? ( " of bType " + da.getBType() ) : ( " of type " + da.getType() );
+                    RiseClipseMessage error = RiseClipseMessage.warning( CDC_VALIDATION_NSD_CATEGORY, da.getFilename(), da.getLineNumber(), 
+                            "DA ", da.getName(), daType,
+                            " cannot be verified because there is no validator for it in namespace \"", nsIdentification, "\"" );
+                    diagnostics.add( new BasicDiagnostic(
+                            Diagnostic.ERROR,
+                            RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                            0,
+                            error.getMessage(),
+                            new Object[] { da, error } ));
+                }
             }
 
+            if( ! CategoryFilter.isEnabled( FunctionalConstraintValidator.FC_VALIDATION_NSD_CATEGORY )) continue;
             FunctionalConstraintValidator fcValidator = FunctionalConstraintValidator.get( da.getFc() );
             if( fcValidator != null ) {
                 fcValidator.validateAbstractDataAttribute( da, diagnostics );
@@ -295,7 +292,7 @@ public class CDCValidator {
         for( SDO sdo : doType.getSDO() ) {
             NsIdentification nsId = nsIdentification;
             if( sdo.getNamespace() != null ) {
-                nsId = NsIdentification.of( sdo.getNamespace() );
+                nsId = NsResolutionTable.namespaceOf( sdo.getNamespace() );
             }
             CDCValidator cdcValidator = null;
             while(( cdcValidator == null ) && ( nsId != null )) {
@@ -320,7 +317,7 @@ public class CDCValidator {
             else {
                 nsId = nsIdentification;
                 if( sdo.getNamespace() != null ) {
-                    nsId = NsIdentification.of( sdo.getNamespace() );
+                    nsId = NsResolutionTable.namespaceOf( sdo.getNamespace() );
                 }
                 RiseClipseMessage warning = RiseClipseMessage.warning( CDC_VALIDATION_NSD_CATEGORY, doType.getFilename(), doType.getLineNumber(), 
                         "while validating DOType: validator for SDO ", sdo.getType(), " not found in namespace \"", nsId, "\"" );
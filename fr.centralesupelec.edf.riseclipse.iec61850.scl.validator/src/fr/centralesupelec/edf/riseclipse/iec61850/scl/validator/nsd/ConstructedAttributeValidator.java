@@ -20,8 +20,7 @@
 */
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
-import java.util.IdentityHashMap;
-import java.util.HashSet;
+import java.util.HashMap;
 
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -35,10 +34,10 @@ import fr.centralesupelec.edf.riseclipse.iec61850.nsd.NsdObject;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.ServiceConstructedAttribute;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.SubDataAttribute;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentification;
-import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentificationName;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.AbstractDataAttribute;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.BDA;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.DAType;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.CategoryFilter;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.RiseClipseValidatorSCL;
 import fr.centralesupelec.edf.riseclipse.util.AbstractRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
@@ -49,11 +48,12 @@ public class ConstructedAttributeValidator extends TypeValidator {
     static final String CA_SETUP_NSD_CATEGORY      = NsdValidator.SETUP_NSD_CATEGORY      + "/ConstructedAttribute";
     static final String CA_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/ConstructedAttribute";
 
-    private HashSet< String > validatedDAType; 
+    private ValidatedSet< String > validatedDAType = new ValidatedSet<>();
 
     private SubDataAttributePresenceConditionValidator subDataAttributePresenceConditionValidator;
-    private IdentityHashMap< NsIdentificationName, TypeValidator > subDataAttributeValidatorMap = new IdentityHashMap<>();
-    private IdentityHashMap< NsIdentificationName, String > subDataAttributeUnknownTypeMap = new IdentityHashMap<>();
+    // Key is SubDataAttribute name, validator is found in this namespace or in one it depends on
+    private HashMap< String, TypeValidator > subDataAttributeValidatorMap = new HashMap<>();
+    private HashMap< String, String > subDataAttributeUnknownTypeMap = new HashMap<>();
 
     private NsIdentification nsIdentification;
     private ConstructedAttribute constructedAttribute;
@@ -88,36 +88,22 @@ public class ConstructedAttributeValidator extends TypeValidator {
             }
             Pair< TypeValidator, NsIdentification > res = TypeValidator.get( this.nsIdentification, type );
             TypeValidator typeValidator = res.getLeft();
-            NsIdentification nsId = res.getRight();
-            // The type of the SubDataAttribute may be a ConstructedAttribute whose validator is not yet built
+            // The type of the SubDataAttribute may be a ConstructedAttribute which is not declared or whose validator is being built
             if(( typeValidator == null ) && ( sda.getRefersToConstructedAttribute() != null )) {
                 console.notice( CA_SETUP_NSD_CATEGORY, sda.getFilename(), sda.getLineNumber(),
                               "Validator for ConstructedAttribute ", constructedAttribute.getName(),
                               " needs validator for SubDataAttribute ", sda.getName(), " of type ", sda.getType(), " which is not yet built" );
                 typeValidator = TypeValidator.buildConstructedAttributeValidator( this.nsIdentification, sda.getRefersToConstructedAttribute(), console );
-                nsId = this.nsIdentification;
             }
             if( typeValidator != null ) {
-                subDataAttributeValidatorMap.put( NsIdentificationName.of( nsId, sda.getName() ), typeValidator );
+                subDataAttributeValidatorMap.put( sda.getName(), typeValidator );
             }
             else {
                 console.warning( CA_SETUP_NSD_CATEGORY, sda.getFilename(), sda.getLineNumber(),
                                  "Type ", sda.getType(), " not found for SubDataAttribute ", sda.getName() );
-                subDataAttributeUnknownTypeMap.put( NsIdentificationName.of( this.nsIdentification, sda.getName() ), sda.getType() );
+                subDataAttributeUnknownTypeMap.put( sda.getName(), sda.getType() );
             }
         }
-        
-        reset();
-    }
-
-    /*
-     * Called before another file is validated
-     */
-    @Override
-    public void reset() {
-        validatedDAType = new HashSet<>();
-        
-        subDataAttributeValidatorMap.values().stream().forEach( v -> v.reset() );
     }
 
     @Override
@@ -135,29 +121,27 @@ public class ConstructedAttributeValidator extends TypeValidator {
     }
 
     private boolean validateDAType( DAType daType, DiagnosticChain diagnostics ) {
-        if( validatedDAType.contains( daType.getId() )) return true;
+        if( ! validatedDAType.add( daType.getId() )) return true;
         @NonNull
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         console.debug( CA_VALIDATION_NSD_CATEGORY, daType.getLineNumber(),
                        "ConstructedAttributeValidator.validateDAType( ", daType.getId(), " ) in namespace \"", nsIdentification, "\"" );
-        validatedDAType.add( daType.getId() );
         
-        subDataAttributePresenceConditionValidator.resetModelData();
+        boolean res = true;
+        if( CategoryFilter.isEnabled( SubDataAttributePresenceConditionValidator.SDA_VALIDATION_NSD_CATEGORY )) {
+            subDataAttributePresenceConditionValidator.resetModelData();
         
-        daType
-        .getBDA()
-        .stream()
-        .forEach( bda -> subDataAttributePresenceConditionValidator.addModelData( bda, bda.getName(), diagnostics ));
+            daType
+            .getBDA()
+            .stream()
+            .forEach( bda -> subDataAttributePresenceConditionValidator.addModelData( bda, bda.getName(), diagnostics ));
       
-        boolean res = subDataAttributePresenceConditionValidator.validate( daType, diagnostics );
+            res = subDataAttributePresenceConditionValidator.validate( daType, diagnostics );
+        }
         
+        if( ! TypeValidator.isEnabled() ) return res;
         for( BDA bda : daType.getBDA() ) {
-            TypeValidator typeValidator = null;
-            NsIdentification nsId = nsIdentification;
-            while(( typeValidator == null ) && ( nsId != null )) {
-                typeValidator = subDataAttributeValidatorMap.get( NsIdentificationName.of( nsId, bda.getName() ));
-                nsId = nsId.getDependsOn();
-            }
+            TypeValidator typeValidator = subDataAttributeValidatorMap.get( bda.getName() );
             if( typeValidator != null ) {
                 typeValidator.validateAbstractDataAttribute( bda, diagnostics );
             }
@@ -165,8 +149,8 @@ public class ConstructedAttributeValidator extends TypeValidator {
                 // if BDA not allowed, error will be reported by PresenceConditionValidator
                 // if BDA has unknown type, tell it
                 String ofType = "";
-                if( subDataAttributeUnknownTypeMap.containsKey( NsIdentificationName.of( nsIdentification, bda.getName() ))) {
-                    ofType = " of type " + subDataAttributeUnknownTypeMap.get( NsIdentificationName.of( nsIdentification, bda.getName() ));
+                if( subDataAttributeUnknownTypeMap.containsKey( bda.getName() )) {
+                    ofType = " of type " + subDataAttributeUnknownTypeMap.get( bda.getName() );
                 }
                 RiseClipseMessage warning = RiseClipseMessage.warning( CA_VALIDATION_NSD_CATEGORY, daType.getFilename(), daType.getLineNumber(), 
                         "while validating DAType: validator for BDA " + bda.getName() + ofType + " not found" );
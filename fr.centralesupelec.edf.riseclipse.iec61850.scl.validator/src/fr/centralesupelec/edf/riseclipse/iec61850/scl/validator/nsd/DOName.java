@@ -0,0 +1,96 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+**
+**  This file is part of the RiseClipse tool
+**
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
+
+import java.util.HashMap;
+
+/*
+ * The name of a DO may have an instance number as suffix (for example "Ind12").
+ * A name made of letters followed by digits is split in a stem ("Ind") and an instance number (12).
+ * Any other name has no instance number and its stem is the whole name.
+ * The same names are found in most LNodeTypes, therefore the result is kept.
+ */
+final class DOName {
+
+    private static HashMap< String, DOName > doNames = new HashMap<>();
+
+    static DOName of( String name ) {
+        DOName doName = doNames.get( name );
+        if( doName == null ) {
+            doName = new DOName( name );
+            doNames.put( name, doName );
+        }
+        return doName;
+    }
+
+    private String stem;
+    private Integer instance;
+
+    private DOName( String name ) {
+        stem = name;
+
+        // Same as name.matches( "[a-zA-Z]+\\d+" ) followed by name.split( "(?=\\d)", 2 )
+        int length = name.length();
+        int i = 0;
+        while(( i < length ) && isLetter( name.charAt( i ))) ++i;
+        if(( i == 0 ) || ( i == length )) return;
+
+        int start = i;
+        long value = 0;
+        while(( i < length ) && isDigit( name.charAt( i ))) {
+            value = value * 10 + ( name.charAt( i ) - '0' );
+            // Too big to be an instance number
+            if( value > Integer.MAX_VALUE ) return;
+            ++i;
+        }
+        if( i != length ) return;
+
+        stem = name.substring( 0, start );
+        instance = ( int ) value;
+    }
+
+    private static boolean isLetter( char c ) {
+        return (( c >= 'a' ) && ( c <= 'z' )) || (( c >= 'A' ) && ( c <= 'Z' ));
+    }
+
+    private static boolean isDigit( char c ) {
+        return ( c >= '0' ) && ( c <= '9' );
+    }
+
+    /*
+     * The name without its instance number
+     */
+    String getStem() {
+        return stem;
+    }
+
+    /*
+     * null if there is no instance number
+     */
+    Integer getInstance() {
+        return instance;
+    }
+
+    boolean hasInstance() {
+        return instance != null;
+    }
+
+}
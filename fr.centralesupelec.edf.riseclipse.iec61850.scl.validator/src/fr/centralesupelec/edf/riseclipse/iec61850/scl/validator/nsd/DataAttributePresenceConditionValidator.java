@@ -45,7 +45,7 @@ import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
 public class DataAttributePresenceConditionValidator extends GenericPresenceConditionValidator< CDC, DOType, @Nullable DA >{
 
     private static final String DA_SETUP_NSD_CATEGORY      = NsdValidator.SETUP_NSD_CATEGORY      + "/DataAttribute";
-    private static final String DA_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/DataAttribute";
+    static final String DA_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/DataAttribute";
 
     private static IdentityHashMap< NsIdentificationName, DataAttributePresenceConditionValidator > validators = new IdentityHashMap<>();
     
@@ -20,6 +20,7 @@
 */
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.HashSet;
@@ -49,7 +50,7 @@ import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
 public class DataObjectPresenceConditionValidator {
     
     private static final String DO_SETUP_NSD_CATEGORY      = NsdValidator.SETUP_NSD_CATEGORY      + "/DataObject";
-    private static final String DO_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/DataObject";
+    static final String DO_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/DataObject";
 
     private static IdentityHashMap< NsIdentificationName, DataObjectPresenceConditionValidator > notStatisticalValidators = new IdentityHashMap<>();
     private static IdentityHashMap< NsIdentificationName, DataObjectPresenceConditionValidator > statisticalValidators = new IdentityHashMap<>();
@@ -64,7 +65,6 @@ public class DataObjectPresenceConditionValidator {
     }
     
     private AnyLNClass anyLNClass;
-    private DataObjectPresenceConditionValidator base;
     
     private static class SingleOrMultiDO {
     }
@@ -86,6 +86,10 @@ public class DataObjectPresenceConditionValidator {
         
     // Name of the DataObject/DO, DO
     private HashMap< String, SingleOrMultiDO > presentDO = new HashMap<>();
+    // Names set in presentDO since last reset(), only these ones have to be reset
+    private ArrayList< String > addedDO = new ArrayList<>();
+    // Same information as presentDO, used to check most presence conditions without looking at each name
+    private PresenceBitSet presence;
     
     private HashSet< String > mandatory;
     private HashSet< String > optional;
@@ -134,7 +138,6 @@ public class DataObjectPresenceConditionValidator {
     private NsIdentification nsIdentification;
     private boolean isStatistic;
     
-    @SuppressWarnings( "unchecked" )        // cast of HashMap.clone() result
     private DataObjectPresenceConditionValidator( NsIdentification nsIdentification, AnyLNClass anyLNClass, boolean isStatistic ) {
         console.debug( DO_SETUP_NSD_CATEGORY, anyLNClass.getFilename(), anyLNClass.getLineNumber(),
                 "DataObjectPresenceConditionValidator( \"", anyLNClass.getName(), "\" in namespace \"", nsIdentification, "\" )");
@@ -143,85 +146,51 @@ public class DataObjectPresenceConditionValidator {
         this.anyLNClass = anyLNClass;
         this.isStatistic = isStatistic;
         
-        // Build validator for parent first, because it is needed (atLeastOne for example)
-        AnyLNClass parent = anyLNClass.getRefersToAbstractLNClass();
-        if( parent != null ) {
-            base = get( nsIdentification, parent, isStatistic );
-        }
+        // Some presence condition must be checked with all the DataObject of the inheritance
+        // hierarchy (AtLeastOne for example).
+        // Therefore, the specification of the inherited AbstractLNClass is flattened in this
+        // validator, and such presence conditions are checked even if there is no element with
+        // this presence condition.
+        atLeastOne = new HashMap<>();
+        atMostOne = new HashSet<>();
+        allOrNonePerGroup = new HashMap<>();
+        allOnlyOneGroup = new HashMap<>();
+        allAtLeastOneGroup = new HashMap<>();
         
-        // Some presence condition must be checked at the lowest LNClass (in the inheritance
-        // hierarchy) having this specification (AtLeastOne for example, see other changes 
-        // in the same commit).
-        // To make it simple, we will check such presence condition only in the leaves of
-        // the inheritance hierarchy, even if there is no such element with this presence
-        // condition.
-        // To do this, we put a non null dictionary for the corresponding condition in the root,
-        // and duplicate it in each sub-LNClass for adding specific elements
-        if( base == null ) {
-            atLeastOne = new HashMap<>();
-            atMostOne = new HashSet<>();
-            allOrNonePerGroup = new HashMap<>();
-            allOnlyOneGroup = new HashMap<>();
-            allAtLeastOneGroup = new HashMap<>();
-        }
-        else {
-            atLeastOne = ( HashMap< Integer, HashSet< String > > ) base.atLeastOne.clone();
-            // We also need to add corresponding keys in presentDO
-            for( Integer group : atLeastOne.keySet() ) {
-                for( String name : atLeastOne.get( group )) {
-                    presentDO.put( name, null );
-                }
-            }
-            
-            atMostOne = ( HashSet< String > ) base.atMostOne.clone();
-            for( String name : atMostOne ) {
-                presentDO.put( name, null );
-            }
-
-            allOrNonePerGroup = ( HashMap< Integer, HashSet< String > > ) base.allOrNonePerGroup.clone();
-            for( Integer group : allOrNonePerGroup.keySet() ) {
-                for( String name : allOrNonePerGroup.get( group )) {
-                    presentDO.put( name, null );
+        // A DataObject of an AbstractLNClass may be redefined by a sub-LNClass, the most specific one is kept
+        for( AnyLNClass lnClass = anyLNClass; lnClass != null; lnClass = lnClass.getRefersToAbstractLNClass() ) {
+            boolean inherited = ( lnClass != anyLNClass );
+            lnClass
+            .getDataObject()
+            .stream()
+            .filter( d -> ! ( inherited && presentDO.containsKey( d.getName() )))
+            .forEach( d -> {
+                if( isStatistic ) {
+                    addSpecification( d.getName(), d.getDsPresCond(), d.getDsPresCondArgs(), d.getLineNumber(), d.getFilename() );
                 }
-            }
-            
-            allOnlyOneGroup = ( HashMap< Integer, HashSet< String > > ) base.allOnlyOneGroup.clone();
-            for( Integer group : allOnlyOneGroup.keySet() ) {
-                for( String name : allOnlyOneGroup.get( group )) {
-                    presentDO.put( name, null );
-                }
-            }
-            
-            allAtLeastOneGroup = ( HashMap< Integer, HashSet< String > > ) base.allAtLeastOneGroup.clone();
-            for( Integer group : allAtLeastOneGroup.keySet() ) {
-                for( String name : allAtLeastOneGroup.get( group )) {
-                    presentDO.put( name, null );
+                else {
+                    addSpecification( d.getName(), d.getPresCond(), d.getPresCondArgs(), d.getLineNumber(), d.getFilename() );
                 }
-            }
+            } );
         }
         
-        
-        anyLNClass
-        .getDataObject()
-        .stream()
-        .forEach( d -> {
-            if( isStatistic ) {
-                addSpecification( d.getName(), d.getDsPresCond(), d.getDsPresCondArgs(), d.getLineNumber(), d.getFilename() );
-            }
-            else {
-                addSpecification( d.getName(), d.getPresCond(), d.getPresCondArgs(), d.getLineNumber(), d.getFilename() );
-            }
-        } );
-        
         checkSpecification();
     }
     
+    // The specification is complete when DOs are added
+    private PresenceBitSet presence() {
+        if( presence == null ) {
+            presence = new PresenceBitSet( presentDO.keySet() );
+        }
+        return presence;
+    }
+
     public void reset() {
-        for( String do_ : presentDO.keySet() ) {
+        for( String do_ : addedDO ) {
             presentDO.put( do_, null );
         }
-        
-        if( base != null ) base.reset();
+        addedDO.clear();
+        presence().clear();
     }
     
     private void addSpecification( String name, String presCond, String presCondArgs, int lineNumber, String filename ) {
@@ -669,7 +638,7 @@ public class DataObjectPresenceConditionValidator {
     }
     
     private void checkSpecification() {
-        // TODO: do we have to check the presence of the sibling in inherited AbstractLNClass ?
+        // DataObjects of inherited AbstractLNClass are also in presentDO
         if( mandatoryIfSiblingPresentElseForbidden != null ) {
             for( Entry< String, String > e : mandatoryIfSiblingPresentElseForbidden.entrySet() ) {
                 if( ! presentDO.containsKey( e.getValue() )) {
@@ -729,27 +698,18 @@ public class DataObjectPresenceConditionValidator {
         // but a number at the end of the name is not always an instance number !
         // Therefore, we first look for with the full name, then with the name without the suffix
         
-        String[] names = new String[] { do_.getName() };
-        if( ! presentDO.containsKey( names[0] )) {
-            if( do_.getName().matches( "[a-zA-Z]+\\d+" )) {
-                names = do_.getName().split( "(?=\\d)", 2 );
-                if( names.length != 2 ) {
-                    RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, do_.getFilename(), do_.getLineNumber(), 
-                            "Unexpected DO name \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" in namespace \"", nsIdentification, "\"" );
-                    diagnostics.add( new BasicDiagnostic(
-                            Diagnostic.ERROR,
-                            RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                            0,
-                            error.getMessage(),
-                            new Object[] { do_, error } ));
-                    return false;
-                }
+        String name = do_.getName();
+        Integer number = null;
+        int index = presence().indexOf( name );
+        if( index < 0 ) {
+            DOName doName = DOName.of( name );
+            if( doName.hasInstance() ) {
+                name = doName.getStem();
+                number = doName.getInstance();
+                index = presence().indexOf( name );
             }
         }
-        if( ! presentDO.containsKey( names[0] )) {
-            if( base != null ) {
-                return base.addDO( do_, anyLNClassName, diagnostics );
-            }
+        if( index < 0 ) {
             RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, do_.getParentLNodeType().getFilename(), do_.getParentLNodeType().getLineNumber(), 
                                       "DO \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" not found in LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
             diagnostics.add( new BasicDiagnostic(
@@ -761,8 +721,8 @@ public class DataObjectPresenceConditionValidator {
             return false;
         }
 
-        if( names.length == 1 ) {
-            if( presentDO.get( do_.getName() ) != null ) {
+        if( number == null ) {
+            if( presence().isPresent( index )) {
                 RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, do_.getParentLNodeType().getFilename(), do_.getParentLNodeType().getLineNumber(), 
                                           "DO \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" already present in LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
                 diagnostics.add( new BasicDiagnostic(
@@ -773,45 +733,44 @@ public class DataObjectPresenceConditionValidator {
                         new Object[] { do_, error } ));
                 return false;
             }
-            presentDO.put( do_.getName(), new SingleDO( do_ ));
+            presentDO.put( name, new SingleDO( do_ ));
+            addedDO.add( name );
+            presence().setPresent( index );
             return true;
         }
-        if( names.length == 2 ) {
-            if( presentDO.get( names[0] ) == null ) {
-                presentDO.put( names[0], new MultiDO() );
-            }
-            else if( presentDO.get( names[0] ) instanceof SingleDO ) {
-                RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, do_.getParentLNodeType().getFilename(), do_.getParentLNodeType().getLineNumber(), 
-                                          "DO \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" already present without instance number in LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
-                diagnostics.add( new BasicDiagnostic(
-                        Diagnostic.ERROR,
-                        RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                        0,
-                        error.getMessage(),
-                        new Object[] { do_, error } ));
-                return false;
-            }
+        if( presentDO.get( name ) == null ) {
+            presentDO.put( name, new MultiDO() );
+            addedDO.add( name );
+            presence().setPresent( index );
+            presence().setMulti( index );
+        }
+        else if( presentDO.get( name ) instanceof SingleDO ) {
+            RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, do_.getParentLNodeType().getFilename(), do_.getParentLNodeType().getLineNumber(), 
+                                      "DO \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" already present without instance number in LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+            diagnostics.add( new BasicDiagnostic(
+                    Diagnostic.ERROR,
+                    RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                    0,
+                    error.getMessage(),
+                    new Object[] { do_, error } ));
+            return false;
+        }
 
-            MultiDO m = ( MultiDO ) presentDO.get( names[0] );
-            Integer number = Integer.valueOf( names[1] );
-                
-            if( m.numberedDOs.containsKey( number )) {
-                RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, do_.getParentLNodeType().getFilename(), do_.getParentLNodeType().getLineNumber(), 
-                                          "DO \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" already present with same instance number in LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
-                diagnostics.add( new BasicDiagnostic(
-                        Diagnostic.ERROR,
-                        RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                        0,
-                        error.getMessage(),
-                        new Object[] { do_, error } ));
-                return false;
-            }
-            m.add( number, do_ );
-            return true;
+        MultiDO m = ( MultiDO ) presentDO.get( name );
+
+        if( m.numberedDOs.containsKey( number )) {
+            RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, do_.getParentLNodeType().getFilename(), do_.getParentLNodeType().getLineNumber(), 
+                                      "DO \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" already present with same instance number in LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+            diagnostics.add( new BasicDiagnostic(
+                    Diagnostic.ERROR,
+                    RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                    0,
+                    error.getMessage(),
+                    new Object[] { do_, error } ));
+            return false;
         }
-        console.warning( DO_VALIDATION_NSD_CATEGORY, do_.getParentLNodeType().getLineNumber(), 
-                         "DO \"", do_.getName(), "\" in LNodeType id \"", do_.getParentLNodeType().getId(), "\" has an unrecognized name in namespace \"", nsIdentification, "\"" );
-        return false;
+        m.add( number, do_ );
+        return true;
     }
     
     public boolean validate( LNodeType lNodeType, DiagnosticChain diagnostics ) {
@@ -819,27 +778,19 @@ public class DataObjectPresenceConditionValidator {
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                        "DataObjectPresenceConditionValidator.validate( ", lNodeType.getId(), " ) in namespace \"", nsIdentification, "\"" );
-        return validate( lNodeType, anyLNClass.getName(), false, diagnostics );
+        return validate( lNodeType, anyLNClass.getName(), diagnostics );
     }
     
-    private boolean validate( LNodeType lNodeType, String anyLNClassName, boolean asSuperclass, DiagnosticChain diagnostics ) {
+    private boolean validate( LNodeType lNodeType, String anyLNClassName, DiagnosticChain diagnostics ) {
         boolean res = true;
         
         @NonNull
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
-
-        // Some presence conditions must only be checked by the final LNClass, not by any superLNClass.
-        // For example, for atLeastOne, the group contains all the DataObject of the full hierarchy,
-        // so only the final LNClass can do the check.
-        // The argument asSuperclass is used for that.
-        if( base != null ) {
-            res = base.validate( lNodeType, anyLNClassName, true, diagnostics );
-        }
         
         // presCond: "M"
         // Element is mandatory
         // Usage in standard NSD files (version 2007B): DataObject and DataAttribute and SubDataAttribute
-        if( mandatory != null ) {
+        if(( mandatory != null ) && ! ( presence().allPresent( mandatory ) && presence().noneMulti( mandatory ))) {
             for( String name : this.mandatory ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                         "validation of presence condition \"M\" for DO \"", name, "\" in LNodeType id = \"",
@@ -868,11 +819,16 @@ public class DataObjectPresenceConditionValidator {
                   }
             }
         }
+        else if( mandatory != null ) {
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"M\" skipped, it is satisfied by all DOs in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+        }
 
         // presCond: "O"
         // Element is optional
         // Usage in standard NSD files (version 2007B): DataObject and DataAttribute and SubDataAttribute
-        if( optional != null ) {
+        if(( optional != null ) && ! presence().noneMulti( optional )) {
             for( String name : this.optional ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                         "validation of presence condition \"O\" for DO \"", name, "\" in LNodeType id = \"",
@@ -892,11 +848,16 @@ public class DataObjectPresenceConditionValidator {
                 }
             }
         }
+        else if( optional != null ) {
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"O\" skipped, it is satisfied by all DOs in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+        }
 
         // presCond: "F"
         // Element is forbidden
         // Usage in standard NSD files (version 2007B): DataObject
-        if( forbidden != null ) {
+        if(( forbidden != null ) && ! presence().nonePresent( forbidden )) {
             for( String name : this.forbidden ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                         "validation of presence condition \"F\" for DO \"", name, "\" in LNodeType id = \"",
@@ -925,12 +886,17 @@ public class DataObjectPresenceConditionValidator {
                 }
             }
         }
+        else if( forbidden != null ) {
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"F\" skipped, it is satisfied by all DOs in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+        }
 
         // presCond: "na"
         // Element is not applicable
         // Usage in standard NSD files (version 2007B): only for dsPresCond
         // -> TODO: what does it mean ? what do we have to check ?
-        if( notApplicable != null ) {
+        if(( notApplicable != null ) && ! presence().nonePresent( notApplicable )) {
             for( String name : notApplicable ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                         "validation of presence condition naM\" for DO \"", name, "\" in LNodeType id = \"",
@@ -947,11 +913,16 @@ public class DataObjectPresenceConditionValidator {
                 }
             }
         }
+        else if( notApplicable != null ) {
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"na\" skipped, it is satisfied by all DOs in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+        }
         
         // presCond: "Mmulti"
         // At least one element shall be present; all instances have an instance number > 0
         // Usage in standard NSD files (version 2007B): DataObject
-        if( mandatoryMulti != null ) {
+        if(( mandatoryMulti != null ) && ! presence().allMulti( mandatoryMulti )) {
             for( String name : this.mandatoryMulti ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                         "validation of presence condition \"Mmulti\" for DO \"", name, "\" in LNodeType id = \"",
@@ -980,11 +951,16 @@ public class DataObjectPresenceConditionValidator {
                 }
             }
         }
+        else if( mandatoryMulti != null ) {
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"Mmulti\" skipped, it is satisfied by all DOs in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+        }
 
         // presCond: "Omulti"
         // Zero or more elements may be present; all instances have an instance number > 0
         // Usage in standard NSD files (version 2007B): DataObject
-        if( optionalMulti != null ) {
+        if(( optionalMulti != null ) && ! presence().noneSingle( optionalMulti )) {
             for( String name : this.optionalMulti ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                         "validation of presence condition \"Omulti\" for DO \"", name, "\" in LNodeType id = \"",
@@ -1004,47 +980,50 @@ public class DataObjectPresenceConditionValidator {
                 }
             }
         }
+        else if( optionalMulti != null ) {
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"Omulti\" skipped, it is satisfied by all DOs in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+        }
 
         // presCond: "AtLeastOne"
         // Parameter n: group number (> 0).
         // At least one of marked elements of a group n shall be present
         // Usage in standard NSD files (version 2007B): DataObject and SubDataObject and DataAttribute and SubDataAttribute
-        //if( atLeastOne != null ) {
-        if( ! asSuperclass ) {
-            for( Entry< Integer, HashSet< String > > e1 : atLeastOne.entrySet() ) {
-                console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
-                        "validation of presence condition \"AtLeastOne\" for group ", e1.getKey(), " in LNodeType id = \"",
-                        lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
-                boolean groupOK = false;
-                String atLeastOneOf = " (at least one of:";
-                for( String member : e1.getValue() ) {
-                    atLeastOneOf += " \"" + member + "\"";
-                    if( presentDO.get( member ) != null ) {
-                        groupOK = true;
-                        break;
-                    }
-                }
-                atLeastOneOf += ")";
-                if( ! groupOK ) {
-                    RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(), 
-                                              "group ", e1.getKey(), " has no elements in LNodeType with LNClass ", anyLNClassName,
-                                              " in namespace \"", nsIdentification, "\"", atLeastOneOf );
-                    diagnostics.add( new BasicDiagnostic(
-                            Diagnostic.ERROR,
-                            RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                            0,
-                            error.getMessage(),
-                            new Object[] { lNodeType, error } ));
-                    res = false;
+        for( Entry< Integer, HashSet< String > > e1 : atLeastOne.entrySet() ) {
+            if( presence().countPresent( e1.getValue() ) > 0 ) continue;
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"AtLeastOne\" for group ", e1.getKey(), " in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+            boolean groupOK = false;
+            String atLeastOneOf = " (at least one of:";
+            for( String member : e1.getValue() ) {
+                atLeastOneOf += " \"" + member + "\"";
+                if( presentDO.get( member ) != null ) {
+                    groupOK = true;
+                    break;
                 }
             }
+            atLeastOneOf += ")";
+            if( ! groupOK ) {
+                RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(), 
+                                          "group ", e1.getKey(), " has no elements in LNodeType with LNClass ", anyLNClassName,
+                                          " in namespace \"", nsIdentification, "\"", atLeastOneOf );
+                diagnostics.add( new BasicDiagnostic(
+                        Diagnostic.ERROR,
+                        RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                        0,
+                        error.getMessage(),
+                        new Object[] { lNodeType, error } ));
+                res = false;
+            }
         }
         
         // presCond: "AtMostOne" :
         // At most one of marked elements shall be present
         // Usage in standard NSD files (version 2007B): DataObject
         //if( atMostOne != null ) {
-        if( ! asSuperclass ) {
+        if( presence().countPresent( atMostOne ) > 1 ) {
             console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                     "validation of presence condition \"AtMostOne\" in LNodeType id = \"",
                     lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
@@ -1075,34 +1054,33 @@ public class DataObjectPresenceConditionValidator {
         // Parameter n: group number (> 0).
         // All or none of the elements of a group n shall be present
         // Usage in standard NSD files (version 2007B): DataAttribute
-        //if( allOrNonePerGroup != null ) {
-        if( ! asSuperclass ) {
-            for( Entry< Integer, HashSet< String > > e1 : allOrNonePerGroup.entrySet() ) {
-                console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
-                        "validation of presence condition \"AllOrNonePerGroup\" for group ", e1.getKey(), " in LNodeType id = \"",
-                        lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
-                int groupCount = 0;
-                String expectedMembers = " (expected members:";
-                for( String member : e1.getValue() ) {
-                    expectedMembers += " \"" + member + "\"";
-                    if( presentDO.get( member ) != null ) {
-                        ++groupCount;
-                    }
-                }
-                expectedMembers += ")";
-                if(( groupCount > 0 ) && ( groupCount < e1.getValue().size() )) {
-                    RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(), 
-                                              "group ", e1.getKey(), " has neither none nor all elements in LNodeType with LNClass ", anyLNClassName,
-                                              " in namespace \"", nsIdentification, "\"", expectedMembers );
-                    diagnostics.add( new BasicDiagnostic(
-                            Diagnostic.ERROR,
-                            RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                            0,
-                            error.getMessage(),
-                            new Object[] { lNodeType, error } ));
-                    res = false;
+        for( Entry< Integer, HashSet< String > > e1 : allOrNonePerGroup.entrySet() ) {
+            int present = presence().countPresent( e1.getValue() );
+            if(( present == 0 ) || ( present == e1.getValue().size() )) continue;
+            console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
+                    "validation of presence condition \"AllOrNonePerGroup\" for group ", e1.getKey(), " in LNodeType id = \"",
+                    lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
+            int groupCount = 0;
+            String expectedMembers = " (expected members:";
+            for( String member : e1.getValue() ) {
+                expectedMembers += " \"" + member + "\"";
+                if( presentDO.get( member ) != null ) {
+                    ++groupCount;
                 }
             }
+            expectedMembers += ")";
+            if(( groupCount > 0 ) && ( groupCount < e1.getValue().size() )) {
+                RiseClipseMessage error = RiseClipseMessage.error( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(), 
+                                          "group ", e1.getKey(), " has neither none nor all elements in LNodeType with LNClass ", anyLNClassName,
+                                          " in namespace \"", nsIdentification, "\"", expectedMembers );
+                diagnostics.add( new BasicDiagnostic(
+                        Diagnostic.ERROR,
+                        RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                        0,
+                        error.getMessage(),
+                        new Object[] { lNodeType, error } ));
+                res = false;
+            }
         }
         
         // presCond: "AllOnlyOneGroup" :
@@ -1110,7 +1088,7 @@ public class DataObjectPresenceConditionValidator {
         // All elements of only one group n shall be present
         // Usage in standard NSD files (version 2007B): DataObject and SubDataAttribute
         //if( allOnlyOneGroup != null ) {
-        if(( ! asSuperclass ) && ( allOnlyOneGroup.size() != 0 )) {         // groupNumber == 0 not an error if empty
+        if( allOnlyOneGroup.size() != 0 ) {         // groupNumber == 0 not an error if empty
             int groupNumber = 0;
             for( Entry< Integer, HashSet< String > > e1 : allOnlyOneGroup.entrySet() ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
@@ -1172,18 +1150,13 @@ public class DataObjectPresenceConditionValidator {
         // All elements of at least one group n shall be present
         // Usage in standard NSD files (version 2007B): DataAttribute
         //if( allAtLeastOneGroup != null ) {
-        if(( ! asSuperclass ) && ( allAtLeastOneGroup.size() != 0 )) {         // groupNumber == 0 not an error if empty
+        if( allAtLeastOneGroup.size() != 0 ) {         // groupNumber == 0 not an error if empty
             int groupNumber = 0;
             for( Entry< Integer, HashSet< String > > e1 : allAtLeastOneGroup.entrySet() ) {
                 console.debug( DO_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                         "validation of presence condition \"AllAtLeastOneGroup\" for group ", e1.getKey(), " in LNodeType id = \"",
                         lNodeType.getId(), "\" with LNClass \"", anyLNClassName, "\" in namespace \"", nsIdentification, "\"" );
-                int groupCount = 0;
-                for( String member : e1.getValue() ) {
-                    if( presentDO.get( member ) != null ) {
-                        ++groupCount;
-                    }
-                }
+                int groupCount = presence().countPresent( e1.getValue() );
                 if( groupCount == e1.getValue().size() ) {
                     groupNumber = e1.getKey();
                 }
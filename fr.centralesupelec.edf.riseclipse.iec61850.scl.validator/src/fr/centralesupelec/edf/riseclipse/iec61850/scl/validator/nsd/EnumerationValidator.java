@@ -21,7 +21,6 @@
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Optional;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -49,7 +48,7 @@ public class EnumerationValidator extends TypeValidator {
     static final String ENUMERATION_SETUP_NSD_CATEGORY      = NsdValidator.SETUP_NSD_CATEGORY      + "/Enumeration";
     static final String ENUMERATION_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/Enumeration";
 
-    private HashSet< String > validatedEnumType;
+    private ValidatedSet< String > validatedEnumType = new ValidatedSet<>();
 
     // Name of EnumVal may be empty, so we use LiteralVal as key
     private HashMap< Integer, String > literals = new HashMap<>();
@@ -87,8 +86,6 @@ public class EnumerationValidator extends TypeValidator {
         // the positive range of values is reserved for standardized value of enumerations,
         // except for the IEC 61850-7-3 multiplierKind that standardizes also values in the negative range,
         isMultiplierKind = "multiplierKind".equals( getName() );
-        
-        reset();
     }
     
     @Override
@@ -96,14 +93,6 @@ public class EnumerationValidator extends TypeValidator {
         return enumeration.getName();
     }
     
-    /*
-     * Called before another file is validated
-     */
-    @Override
-    public void reset() {
-        validatedEnumType = new HashSet<>();
-    }
-
     @Override
     public boolean validateAbstractDataAttribute( AbstractDataAttribute ada, DiagnosticChain diagnostics ) {
         @NonNull
@@ -184,12 +173,11 @@ public class EnumerationValidator extends TypeValidator {
     }
 
     public boolean validateEnumType( EnumType enumType, DiagnosticChain diagnostics ) {
-        if( validatedEnumType.contains( enumType.getId() )) return true;
+        if( ! validatedEnumType.add( enumType.getId() )) return true;
         @NonNull
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         console.debug( ENUMERATION_VALIDATION_NSD_CATEGORY, enumType.getFilename(), enumType.getLineNumber(),
                        "EnumerationValidator.validateEnumType( ", enumType.getId(), " ) in namespace \"", nsIdentification, "\"" );
-        validatedEnumType.add( enumType.getId() );
         
         boolean res = true;
         
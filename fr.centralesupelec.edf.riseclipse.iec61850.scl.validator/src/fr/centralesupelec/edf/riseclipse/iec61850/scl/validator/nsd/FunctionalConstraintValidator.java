@@ -33,7 +33,7 @@ import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
 
 public class FunctionalConstraintValidator {
 
-    private static final String FC_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/FunctionalConstraint";
+    static final String FC_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/FunctionalConstraint";
 
     private static HashMap< FCEnum, FunctionalConstraintValidator > validators = new HashMap<>();
     
@@ -20,6 +20,7 @@
 */
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map.Entry;
@@ -46,6 +47,10 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
     
     // Name of the NsdComponent/SclComponent, SclComponent
     protected HashMap< String, SclComponent > presentSclComponent = new HashMap<>();
+    // Names set in presentSclComponent since last resetModelData(), only these ones have to be reset
+    private ArrayList< String > addedSclComponent = new ArrayList<>();
+    // Same information as presentSclComponent, used to check most presence conditions without looking at each name
+    private PresenceBitSet presence;
     
     protected HashSet< String > mandatory;
     protected HashSet< String > optional;
@@ -642,14 +647,25 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         }
     }
 
+    // The specification is complete when model data are used
+    private PresenceBitSet presence() {
+        if( presence == null ) {
+            presence = new PresenceBitSet( presentSclComponent.keySet() );
+        }
+        return presence;
+    }
+
     public void resetModelData() {
-        for( String sclComponent : presentSclComponent.keySet() ) {
+        for( String sclComponent : addedSclComponent ) {
             presentSclComponent.put( sclComponent, null );
         }
+        addedSclComponent.clear();
+        presence().clear();
     }
     
     public boolean addModelData( @NonNull SclComponent sclComponent, String sclComponentName, DiagnosticChain diagnostics ) {
-        if( ! presentSclComponent.containsKey( sclComponentName )) {
+        int index = presence().indexOf( sclComponentName );
+        if( index < 0 ) {
             RiseClipseMessage error = RiseClipseMessage.error( getValidationMessageCategory(), sclComponent.getFilename(), sclComponent.getLineNumber(), 
                                       getSclComponentClassName(), " \"", sclComponentName, "\" not expected in ", getNsdModelClassName(), " \"", getNsdModelName(),
                                       "\" at line ", getNsdModelLineNumber(), " in namespace \"", nsIdentification, "\"" );
@@ -662,7 +678,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
             return false;
         }
 
-        if( presentSclComponent.get( sclComponentName ) != null ) {
+        if( presence().isPresent( index )) {
             RiseClipseMessage error = RiseClipseMessage.error( getValidationMessageCategory(), sclComponent.getFilename(), sclComponent.getLineNumber(), 
                                       getSclComponentClassName(), " \"", sclComponentName, "\" already present in ", getNsdModelClassName(), " \"", getNsdModelName(),
                                       "\" at line ", getNsdModelLineNumber(), " in namespace \"", nsIdentification, "\"" );
@@ -675,6 +691,8 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
             return false;
         }
         presentSclComponent.put( sclComponentName, sclComponent );
+        addedSclComponent.add( sclComponentName );
+        presence().setPresent( index );
         return true;
     }
     
@@ -689,7 +707,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // presCond: "M"
         // Element is mandatory
         // Usage in standard NSD files (version 2007B): DataObject and DataAttribute and SubDataAttribute
-        if( mandatory != null ) {
+        if(( mandatory != null ) && ! presence().allPresent( mandatory )) {
             for( String name : this.mandatory ) {
                 console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                         "validation of presence condition \"M\" for ", getSclComponentClassName(), " \"", name, "\" in ", getSclModelClassName(), " id = \"",
@@ -729,7 +747,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // presCond: "F"
         // Element is forbidden
         // Usage in standard NSD files (version 2007B): DataObject
-        if( forbidden != null ) {
+        if(( forbidden != null ) && ! presence().nonePresent( forbidden )) {
             for( String name : this.forbidden ) {
                 console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                         "validation of presence condition \"F\" for ", getSclComponentClassName(), " \"", name, "\" in ", getSclModelClassName(), " id = \"",
@@ -755,7 +773,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // Element is not applicable
         // Usage in standard NSD files (version 2007B): only for dsPresCond
         // -> TODO: what does it mean ? what do we have to check ?
-        if( notApplicable != null ) {
+        if(( notApplicable != null ) && ! presence().nonePresent( notApplicable )) {
             for( String name : notApplicable ) {
                 console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                         "validation of presence condition \"na\" for ", getSclComponentClassName(), " \"", name, "\" in ", getSclModelClassName(), " id = \"",
@@ -779,7 +797,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // presCond: "Mmulti"
         // At least one element shall be present; all instances have an instance number > 0
         // Usage in standard NSD files (version 2007B): DataObject
-        if( mandatoryMulti != null ) {
+        if(( mandatoryMulti != null ) && ! presence().nonePresent( mandatoryMulti )) {
             for( String name : mandatoryMulti ) {
                 console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                         "validation of presence condition \"Mmulti\" for ", getSclComponentClassName(), " \"", name, "\" in ", getSclModelClassName(), " id = \"",
@@ -803,7 +821,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // presCond: "Omulti"
         // Zero or more elements may be present; all instances have an instance number > 0
         // Usage in standard NSD files (version 2007B): DataObject
-        if( optionalMulti != null ) {
+        if(( optionalMulti != null ) && ! presence().nonePresent( optionalMulti )) {
             for( String name : optionalMulti ) {
                 console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                         "validation of presence condition \"Omulti\" for ", getSclComponentClassName(), " \"", name, "\" in ", getSclModelClassName(), " id = \"",
@@ -830,6 +848,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // Usage in standard NSD files (version 2007B): DataObject and SubDataObject and DataAttribute and SubDataAttribute
         if( atLeastOne != null ) {
             for( Entry< Integer, HashSet< String > > e1 : atLeastOne.entrySet() ) {
+                if( presence().countPresent( e1.getValue() ) > 0 ) continue;
                 console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                         "validation of presence condition \"AtLeastOne\" for ", getSclComponentClassName(), " group ", e1.getKey(), " in ", getSclModelClassName(), " id = \"",
                         sclModel.getId(), "\" with ", getNsdModelClassName(),
@@ -863,7 +882,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // presCond: "AtMostOne" :
         // At most one of marked elements shall be present
         // Usage in standard NSD files (version 2007B): DataObject
-        if( atMostOne != null ) {
+        if(( atMostOne != null ) && ( presence().countPresent( atMostOne ) > 1 )) {
             console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                     "validation of presence condition \"AtMostOne\" for ", getSclComponentClassName(), " in ", getSclModelClassName(), " id = \"",
                     sclModel.getId(), "\" with ", getNsdModelClassName(),
@@ -897,6 +916,8 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
         // Usage in standard NSD files (version 2007B): DataAttribute
         if( allOrNonePerGroup != null ) {
             for( Entry< Integer, HashSet< String > > e1 : allOrNonePerGroup.entrySet() ) {
+                int present = presence().countPresent( e1.getValue() );
+                if(( present == 0 ) || ( present == e1.getValue().size() )) continue;
                 console.debug( getValidationMessageCategory(), sclModel.getFilename(), sclModel.getLineNumber(),
                         "validation of presence condition \"AllOrNonePerGroup\" for ", getSclComponentClassName(), " group ", e1.getKey(), " in ", getSclModelClassName(), " id = \"",
                         sclModel.getId(), "\" with ", getNsdModelClassName(),
@@ -1002,12 +1023,7 @@ public abstract class GenericPresenceConditionValidator< NsdModel extends NsdObj
                         "validation of presence condition \"AllAtLeastOneGroup\" for ", getSclComponentClassName(), " group ", e1.getKey(), " in ", getSclModelClassName(), " id = \"",
                         sclModel.getId(), "\" with ", getNsdModelClassName(),
                         " \"", getNsdModelName(), "\" at line ", getNsdModelLineNumber(), " in namespace \"", nsIdentification, "\"" );
-                int groupCount = 0;
-                for( String member : e1.getValue() ) {
-                    if( presentSclComponent.get( member ) != null ) {
-                        ++groupCount;
-                    }
-                }
+                int groupCount = presence().countPresent( e1.getValue() );
                 if( groupCount == e1.getValue().size() ) {
                     groupNumber = e1.getKey();
                 }
@@ -20,9 +20,7 @@
 */
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
-import java.util.IdentityHashMap;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -36,9 +34,9 @@ import fr.centralesupelec.edf.riseclipse.iec61850.nsd.AnyLNClass;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.DataObject;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.LNClass;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentification;
-import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentificationName;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.DO;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.LNodeType;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.CategoryFilter;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.RiseClipseValidatorSCL;
 import fr.centralesupelec.edf.riseclipse.util.AbstractRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
@@ -50,41 +48,23 @@ public class LNClassValidator {
     private static final String LNCLASS_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/LNClass";
 
     // The name of an LNClass in a namespace is unique
-    private static IdentityHashMap< NsIdentificationName, LNClassValidator > validators = new IdentityHashMap<>();
+    // A validator is built when its LNClass is first looked up
+    private static NsResolutionTable< String, LNClassValidator > validators = new NsResolutionTable<>( false );
     
     public static Pair< LNClassValidator, NsIdentification > get( NsIdentification nsIdentification, String lnClassName ) {
-        NsIdentification nsId = nsIdentification;
-        LNClassValidator lnClassValidator = null;
-        while(( lnClassValidator == null ) && ( nsId != null )) {
-            lnClassValidator = validators.get( NsIdentificationName.of( nsId, lnClassName ));
-            nsIdentification = nsId;
-            nsId = nsId.getDependsOn();
-        }
-        return Pair.of( lnClassValidator, nsIdentification );
+        return validators.get( nsIdentification, lnClassName );
     }
     
-    public static void buildValidators( NsIdentification nsIdentification, Stream< LNClass > stream, IRiseClipseConsole console ) {
+    public static void declareValidators( NsIdentification nsIdentification, Stream< LNClass > stream ) {
         stream
-        .forEach( lnClass -> validators.put(
-                NsIdentificationName.of( nsIdentification, lnClass.getName() ),
-                new LNClassValidator( nsIdentification, lnClass, console )));
-    }
-
-    /*
-     * Called before another file is validated
-     */
-    public static void resetValidators() {
-        validators.values().stream().forEach( v -> v.reset() );
-    }
-
-    private void reset() {
-        validatedLNodeType = new HashSet<>();
-        
-        dataObjectValidatorMap.values().stream().forEach( v -> v.reset() );
+        .forEach( lnClass -> validators.declare(
+                nsIdentification,
+                lnClass.getName(),
+                () -> NsdValidator.buildValidator( console -> new LNClassValidator( nsIdentification, lnClass, console )) ));
     }
 
     private NsIdentification nsIdentification;
-    private HashSet< String > validatedLNodeType;
+    private ValidatedSet< String > validatedLNodeType = new ValidatedSet<>();
 
     // An LNClass defines a set of DataObject, each has a name, a type (name of a CDC) and a presence condition
     // An LNClass is referenced by an LNodeType (lnClass attribute) 
@@ -138,17 +118,14 @@ public class LNClassValidator {
 
             lnClass = lnClass.getRefersToAbstractLNClass();
         }
-        
-        reset();
     }
     
     public boolean validateLNodeType( LNodeType lNodeType, DiagnosticChain diagnostics ) {
-        if( validatedLNodeType.contains( lNodeType.getId() )) return true;
+        if( ! validatedLNodeType.add( lNodeType.getId() )) return true;
         @NonNull
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         console.debug( LNCLASS_VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                        "LNClassValidator.validateLNodeType( ", lNodeType.getId(), " in namespace \"", this.nsIdentification, "\"" );
-        validatedLNodeType.add( lNodeType.getId() );
 
         boolean isStatistic = lNodeType
                 .getDO()
@@ -160,54 +137,49 @@ public class LNClassValidator {
 
         // Each DO of an LNodeType must satisfy the presence condition of the corresponding DataObject (same name)
         // Do with another namespace are not concerned by this rule
-        dataObjectPresenceConditionValidator.reset();
-        lNodeType
-        .getDO()
-        .stream()
-        .forEach( do_ -> {
-            // Take LNClass "LPHD" in IEC_61850-7-4_2007B4.nsd extended by IEC_61869-9_2016.nsd
-            // nsIdentification of this is "IEC 61850-7-4:2007B"
-            // For the DataObject "NamVariant", its namespace is "IEC 61869-9:2016"
-            // The presence of this DataObject cannot be checked by LNClass "LPHD" in namespace "IEC 61850-7-4:2007B"
-            // And "IEC 61850-7-4:2007B" does not depends on "IEC 61869-9:2016" (this is the reverse)
-            if(( do_.getNamespace() == null ) || nsIdentification.dependsOn( NsIdentification.of( do_.getNamespace() ))) {
-                dataObjectPresenceConditionValidator.addDO( do_, diagnostics );
-            }
-            else {
-                RiseClipseMessage warning = RiseClipseMessage.warning( LNCLASS_VALIDATION_NSD_CATEGORY, do_.getFilename(), do_.getLineNumber(), 
-                        "Presence condition of DO \"", do_.getName(),
-                        "\" is not checked because its namespace \"", do_.getNamespace(),
-                        "\" is not the same as the namespace of its LNodeType \"", nsIdentification, "\"" );
-                diagnostics.add( new BasicDiagnostic(
-                        Diagnostic.WARNING,
-                        RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
-                        0,
-                        warning.getMessage(),
-                        new Object[] { do_, warning } ));
-            }
-        });
+        if( CategoryFilter.isEnabled( DataObjectPresenceConditionValidator.DO_VALIDATION_NSD_CATEGORY )) {
+            dataObjectPresenceConditionValidator.reset();
+            lNodeType
+            .getDO()
+            .stream()
+            .forEach( do_ -> {
+                // Take LNClass "LPHD" in IEC_61850-7-4_2007B4.nsd extended by IEC_61869-9_2016.nsd
+                // nsIdentification of this is "IEC 61850-7-4:2007B"
+                // For the DataObject "NamVariant", its namespace is "IEC 61869-9:2016"
+                // The presence of this DataObject cannot be checked by LNClass "LPHD" in namespace "IEC 61850-7-4:2007B"
+                // And "IEC 61850-7-4:2007B" does not depends on "IEC 61869-9:2016" (this is the reverse)
+                if(( do_.getNamespace() == null ) || nsIdentification.dependsOn( NsResolutionTable.namespaceOf( do_.getNamespace() ))) {
+                    dataObjectPresenceConditionValidator.addDO( do_, diagnostics );
+                }
+                else {
+                    RiseClipseMessage warning = RiseClipseMessage.warning( LNCLASS_VALIDATION_NSD_CATEGORY, do_.getFilename(), do_.getLineNumber(), 
+                            "Presence condition of DO \"", do_.getName(),
+                            "\" is not checked because its namespace \"", do_.getNamespace(),
+                            "\" is not the same as the namespace of its LNodeType \"", nsIdentification, "\"" );
+                    diagnostics.add( new BasicDiagnostic(
+                            Diagnostic.WARNING,
+                            RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                            0,
+                            warning.getMessage(),
+                            new Object[] { do_, warning } ));
+                }
+            });
       
-        res = dataObjectPresenceConditionValidator.validate( lNodeType, diagnostics ) && res;
+            res = dataObjectPresenceConditionValidator.validate( lNodeType, diagnostics ) && res;
+        }
         
+        // Nothing to do below if all these validations are skipped
+        if( ! CategoryFilter.isEnabled( LNCLASS_VALIDATION_NSD_CATEGORY ) && ! CDCValidator.isEnabled() ) return res;
+
         // The type of each DO must conform to the CDC of the corresponding DataObject
         for( DO do_ : lNodeType.getDO() ) {
-            String[] names;
-            if( do_.getName().matches( "[a-zA-Z]+\\d+" )) {
-                names = do_.getName().split( "(?=\\d)", 2 );
-            }
-            else {
-                names = new String[] { do_.getName() };
-            }
-            if( names.length == 0 ) {
-                // error should have been already displayed
-                //AbstractRiseClipseConsole.getConsole().error( "[NSD validation] Unexpected DO name " + do_.getName() + " in LNodeType (line " + do_.getParentLNodeType().getLineNumber() );
-                continue;
-            }
+            // An instance number may be set as a suffix
+            String name = DOName.of( do_.getName() ).getStem();
             // Same example as above
             // "IEC 61869-9:2016" depends on "IEC 61850-7-4:2007B"
             // Therefore, we can check DataObject "NamVariant"
-            if(( do_.getNamespace() == null ) || NsIdentification.of( do_.getNamespace() ).dependsOn( nsIdentification )) {
-                CDCValidator cdcValidator = dataObjectValidatorMap.get( names[0] );
+            if(( do_.getNamespace() == null ) || NsResolutionTable.namespaceOf( do_.getNamespace() ).dependsOn( nsIdentification )) {
+                CDCValidator cdcValidator = dataObjectValidatorMap.get( name );
                 if( cdcValidator != null ) {
                     if(( do_.getRefersToDOType() != null ) && ! cdcValidator.getName().equals( do_.getRefersToDOType().getCdc() )) {
                         RiseClipseMessage error = RiseClipseMessage.warning( LNCLASS_VALIDATION_NSD_CATEGORY, do_.getFilename(), do_.getLineNumber(), 
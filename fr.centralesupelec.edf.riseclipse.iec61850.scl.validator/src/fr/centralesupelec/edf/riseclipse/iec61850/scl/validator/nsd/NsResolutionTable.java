@@ -0,0 +1,174 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+**
+**  This file is part of the RiseClipse tool
+**
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentification;
+
+/*
+ * A validator is looked up in a namespace and, if not found, in the namespaces it depends on.
+ * The first lookup from a namespace flattens the validators of all these namespaces in a table,
+ * so that following lookups are done without walking the DependsOn chain.
+ * Validators are only declared during setup, each one is built the first time it is found by a lookup:
+ * an SCL file usually uses a small part of the LNClasses, CDCs and types of the loaded namespaces.
+ */
+class NsResolutionTable< K, V > {
+
+    // Parsing a namespace string is done for each DO/SDO, it is therefore done only once
+    private static HashMap< String, NsIdentification > parsedNamespaces = new HashMap<>();
+
+    static NsIdentification namespaceOf( String namespace ) {
+        return parsedNamespaces.computeIfAbsent( namespace, NsIdentification::of );
+    }
+
+    private static class Declaration< V > {
+        private NsIdentification nsIdentification;
+        private Supplier< V > builder;
+        private Pair< V, NsIdentification > validator;
+        private boolean building;
+
+        Declaration( NsIdentification nsIdentification, Supplier< V > builder ) {
+            this.nsIdentification = nsIdentification;
+            this.builder = builder;
+        }
+
+        /*
+         * Returns null if the validator is needed while it is being built
+         */
+        Pair< V, NsIdentification > get() {
+            if( validator == null ) {
+                if( building ) return null;
+                building = true;
+                try {
+                    validator = Pair.of( builder.get(), nsIdentification );
+                    builder = null;
+                }
+                finally {
+                    building = false;
+                }
+            }
+            return validator;
+        }
+
+        void set( V value ) {
+            validator = Pair.of( value, nsIdentification );
+            builder = null;
+        }
+    }
+
+    // Keys are names (LNClass) or NSD objects (CDC, types)
+    private boolean identityKeys;
+    // Validators as declared in each namespace
+    private HashMap< NsIdentification, Map< K, Declaration< V > > > declared = new HashMap<>();
+    // Validators visible from each namespace
+    private HashMap< NsIdentification, Map< K, Declaration< V > > > resolved = new HashMap<>();
+
+    NsResolutionTable( boolean identityKeys ) {
+        this.identityKeys = identityKeys;
+    }
+
+    private < T > Map< K, T > newMap() {
+        if( identityKeys ) return new IdentityHashMap<>();
+        return new HashMap<>();
+    }
+
+    boolean isDeclared( NsIdentification nsIdentification, K key ) {
+        Map< K, Declaration< V > > own = declared.get( nsIdentification );
+        return ( own != null ) && own.containsKey( key );
+    }
+
+    /*
+     * The validator will be built by builder when first looked up
+     */
+    void declare( NsIdentification nsIdentification, K key, Supplier< V > builder ) {
+        declared.computeIfAbsent( nsIdentification, ns -> newMap() ).put( key, new Declaration<>( nsIdentification, builder ));
+        invalidate( nsIdentification );
+    }
+
+    /*
+     * For a validator already built, this may happen during validation
+     */
+    void put( NsIdentification nsIdentification, K key, V value ) {
+        Map< K, Declaration< V > > own = declared.get( nsIdentification );
+        Declaration< V > declaration = ( own == null ) ? null : own.get( key );
+        if( declaration != null ) {
+            // Tables share the declaration, they need not be built again
+            declaration.set( value );
+            return;
+        }
+        declare( nsIdentification, key, () -> value );
+    }
+
+    /*
+     * Tables of namespaces which see those declared in nsIdentification are built again when needed,
+     * already built validators are kept by their declaration
+     */
+    private void invalidate( NsIdentification nsIdentification ) {
+        if( resolved.isEmpty() ) return;
+        resolved.keySet().removeIf( ns -> {
+            for( NsIdentification nsId = ns; nsId != null; nsId = nsId.getDependsOn() ) {
+                if( nsId.equals( nsIdentification )) return true;
+            }
+            return false;
+        });
+    }
+
+    /*
+     * The validator is built if needed, the namespace where it is declared is also returned
+     */
+    Pair< V, NsIdentification > get( NsIdentification nsIdentification, K key ) {
+        Declaration< V > declaration = resolve( nsIdentification ).get( key );
+        Pair< V, NsIdentification > res = ( declaration == null ) ? null : declaration.get();
+        if( res == null ) {
+            // As when DependsOn was walked, the last namespace looked at is given
+            NsIdentification root = nsIdentification;
+            while( root.getDependsOn() != null ) {
+                root = root.getDependsOn();
+            }
+            return Pair.of( null, root );
+        }
+        return res;
+    }
+
+    private Map< K, Declaration< V > > resolve( NsIdentification nsIdentification ) {
+        Map< K, Declaration< V > > table = resolved.get( nsIdentification );
+        if( table != null ) return table;
+
+        table = newMap();
+        if( nsIdentification.getDependsOn() != null ) {
+            table.putAll( resolve( nsIdentification.getDependsOn() ));
+        }
+        // Validators of this namespace hide those of the namespaces it depends on
+        Map< K, Declaration< V > > own = declared.get( nsIdentification );
+        if( own != null ) {
+            table.putAll( own );
+        }
+        resolved.put( nsIdentification, table );
+        return table;
+    }
+
+}
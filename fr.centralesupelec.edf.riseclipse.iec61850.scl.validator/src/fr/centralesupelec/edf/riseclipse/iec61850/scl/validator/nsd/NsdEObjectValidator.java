@@ -20,7 +20,6 @@
 */
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
-import java.util.HashSet;
 import java.util.Map;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -39,6 +38,7 @@ import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentificationName;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.AnyLN;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.LNodeType;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.util.SclSwitch;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.CategoryFilter;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.RiseClipseValidatorSCL;
 import fr.centralesupelec.edf.riseclipse.util.AbstractRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
@@ -47,52 +47,35 @@ import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
 public class NsdEObjectValidator implements EValidator {
 
     private NsdResourceSetImpl nsdResourceSet;
-    private HashSet< NsIdentificationName > validatedLNodeTypes = new HashSet<>();  
+    private ValidatedSet< NsIdentificationName > validatedLNodeTypes = new ValidatedSet<>();
 
     public NsdEObjectValidator( NsdResourceSetImpl nsdResourceSet, IRiseClipseConsole console ) {
         // We keep it to improve some error messages
         this.nsdResourceSet = nsdResourceSet;
         
-        // To avoid building several times the validators, we process the ordered list of NsIdentification (root first)
-        
-        // CDC "ENS" in 61850-7-3 is enumParameterized
-        // AbstractLNClass "DomainLN" in 61850-7-4 uses it with enumeration "BehaviourModeKind" which is also defined in 61850-7-4
-        // The tool makes a copy of the CDC and sets the right type to the appropriate DataAttribute, but the CDC is still in 61850-7-3
-        // Validators for 61850-7-3 are built before those of 61850-7-4, and when the one for the instantiated CDC is built,
-        // validator for "BehaviourModeKind" is not yet built and therefore not found
-        // This is why there are several loops
+        // Validators are only declared here, each one is built when first looked up during validation.
+        // All declarations are done before any lookup, therefore a validator needing another one declared
+        // in its namespace or in one it depends on finds it whatever the order of the namespaces.
         for( NsIdentification nsIdentification : nsdResourceSet.getNsIdentificationOrderedList( console )) {
-            console.debug( NsdValidator.SETUP_NSD_CATEGORY, 0, "Building basic and enumeration validators in namespace \"", nsIdentification, "\"" );
-            // Order is important !
-            TypeValidator.buildBasicTypeValidators(
+            console.debug( NsdValidator.SETUP_NSD_CATEGORY, 0, "Declaring validators in namespace \"", nsIdentification, "\"" );
+            TypeValidator.declareBasicTypeValidators(
                     nsIdentification,
                     nsdResourceSet.getBasicTypeStream( nsIdentification, false ),
                     console );
-            TypeValidator.builEnumerationdValidators(
+            TypeValidator.declareEnumerationValidators(
                     nsIdentification,
                     nsdResourceSet.getEnumerationStream( nsIdentification, false ),
                     console );
-        }
-        for( NsIdentification nsIdentification : nsdResourceSet.getNsIdentificationOrderedList( console )) {
-            console.debug( NsdValidator.SETUP_NSD_CATEGORY, 0, "Building constructed attributes validators in namespace \"", nsIdentification, "\"" );
-            TypeValidator.buildConstructedAttributeValidators(
+            TypeValidator.declareConstructedAttributeValidators(
                     nsIdentification,
                     nsdResourceSet.getConstructedAttributeStream( nsIdentification, false ),
                     console );
-        }
-        for( NsIdentification nsIdentification : nsdResourceSet.getNsIdentificationOrderedList( console )) {
-            console.debug( NsdValidator.SETUP_NSD_CATEGORY, 0, "Building CDC validators in namespace \"", nsIdentification, "\"" );
-            CDCValidator.buildValidators(
+            CDCValidator.declareValidators(
                     nsIdentification,
-                    nsdResourceSet.getCDCStream( nsIdentification, false ),
-                    console );
-        }
-        for( NsIdentification nsIdentification : nsdResourceSet.getNsIdentificationOrderedList( console )) {
-            console.debug( NsdValidator.SETUP_NSD_CATEGORY, 0, "Building LNClass validators in namespace \"", nsIdentification, "\"" );
-            LNClassValidator.buildValidators(
+                    nsdResourceSet.getCDCStream( nsIdentification, false ));
+            LNClassValidator.declareValidators(
                     nsIdentification,
-                    nsdResourceSet.getLNClassStream( nsIdentification, false ),
-                    console );
+                    nsdResourceSet.getLNClassStream( nsIdentification, false ));
         }
     }
 
@@ -100,9 +83,8 @@ public class NsdEObjectValidator implements EValidator {
      * Called before another file is validated
      */
     public void reset() {
-        TypeValidator.resetValidators();
-        CDCValidator.resetValidators();
-        LNClassValidator.resetValidators();
+        // Validators will forget already validated types when they are used
+        ValidatedSet.nextGeneration();
     }
 
     @Override
@@ -111,7 +93,9 @@ public class NsdEObjectValidator implements EValidator {
     }
 
     @Override
-    public boolean validate( EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map< Object, Object > context ) {
+    public boolean validate( EClass eClass, EObject eObject, DiagnosticChain chain, Map< Object, Object > context ) {
+        // Messages of categories not selected by --only/--skip are not reported
+        DiagnosticChain diagnostics = CategoryFilter.filter( chain );
 
         SclSwitch< Boolean > sw = new SclSwitch< Boolean >() {
 
@@ -142,12 +126,11 @@ public class NsdEObjectValidator implements EValidator {
                     return true;
                 }
                 NsIdentificationName nsId = NsIdentificationName.of( anyLN.getNamespace(), anyLN.getRefersToLNodeType().getId() );
-                if( validatedLNodeTypes.contains( nsId )) {
+                if( ! validatedLNodeTypes.add( nsId )) {
                     AbstractRiseClipseConsole.getConsole().debug( NsdValidator.VALIDATION_NSD_CATEGORY, anyLN.getFilename(), anyLN.getLineNumber(),
                             "LNodeType id=\"", anyLN.getRefersToLNodeType().getId(), "\" has already been validated in namespace \"", anyLN.getNamespace(), "\"" );
                     return true;
                 }
-                validatedLNodeTypes.add( nsId );
                 return validateLNodeType( anyLN.getRefersToLNodeType(), anyLN.getNamespace(), diagnostics );
             }
 
@@ -167,12 +150,16 @@ public class NsdEObjectValidator implements EValidator {
         return true;
     }
 
-   private boolean validateLNodeType( LNodeType lNodeType, String namespace, DiagnosticChain diagnostics ) {
+    /*
+     * Also used when LNs are not in the model (see NsdValidator.validateLNodeType())
+     */
+    boolean validateLNodeType( LNodeType lNodeType, String namespace, DiagnosticChain chain ) {
+        DiagnosticChain diagnostics = CategoryFilter.filter( chain );
         IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
         console.debug( NsdValidator.VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(),
                        "NsdEObjectValidator.validateLNodeType( ", lNodeType.getId(), " in namespace ", namespace );
 
-        NsIdentification id = NsIdentification.of( namespace );
+        NsIdentification id = NsResolutionTable.namespaceOf( namespace );
         if( nsdResourceSet.getNS( id ) == null ) {
             RiseClipseMessage warning = RiseClipseMessage.warning( NsdValidator.VALIDATION_NSD_CATEGORY, lNodeType.getFilename(), lNodeType.getLineNumber(), 
                       "Cannot validate LNodeType ", lNodeType.getId(), " in namespace \"", namespace, "\" because this namespace is unknown" );
@@ -20,12 +20,26 @@
 */
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.jdt.annotation.NonNull;
-import org.eclipse.ocl.pivot.validation.ComposedEValidator;
 
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.utilities.NsdModelLoader;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.LNodeType;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.CategoryFilter;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.SclComposedEValidator;
+import fr.centralesupelec.edf.riseclipse.util.AbstractRiseClipseConsole;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
 import fr.centralesupelec.edf.riseclipse.util.Severity;
 
 public class NsdValidator {
@@ -35,6 +49,23 @@ public class NsdValidator {
     static final String     VALIDATION_NSD_CATEGORY = "NSD/Validation";
     static final String NOTIMPLEMENTED_NSD_CATEGORY = "NSD/NotImplemented";
     
+    // Validators are built when first used, their setup messages must follow the same rule as during prepare()
+    private static boolean displayNsdMessages = true;
+
+    static < T > T buildValidator( Function< IRiseClipseConsole, T > builder ) {
+        IRiseClipseConsole console = AbstractRiseClipseConsole.getConsole();
+        if( displayNsdMessages ) {
+            return builder.apply( console );
+        }
+        Severity level = console.setLevel( Severity.ERROR );
+        try {
+            return builder.apply( console );
+        }
+        finally {
+            console.setLevel( level );
+        }
+    }
+
     private @NonNull NsdModelLoader nsdLoader;
     private @NonNull NsdEObjectValidator nsdEObjectValidator;
 
@@ -46,7 +77,119 @@ public class NsdValidator {
         nsdLoader.load( nsdFile, console );
     }
     
-    public void prepare( @NonNull ComposedEValidator validator, @NonNull IRiseClipseConsole console, boolean displayNsdMessages ) {
+    /*
+     * NSD files are independent until finalizeLoad() is called, they are therefore parsed in parallel,
+     * each one in its own resource set. The resources are then moved to the shared resource set in the given order.
+     */
+    public void addNsdDocuments( @NonNull List< @NonNull String > nsdFiles, @NonNull IRiseClipseConsole console ) {
+        int nbThreads = Math.min( nsdFiles.size(), Runtime.getRuntime().availableProcessors() );
+        if( nbThreads <= 1 ) {
+            for( String nsdFile : nsdFiles ) {
+                addNsdDocument( nsdFile, console );
+            }
+            return;
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool( nbThreads );
+        try {
+            // The console is not thread safe: messages of each file are kept and displayed in the order of the files
+            List< Future< Resource > > resources = new ArrayList<>();
+            List< CollectingConsole > consoles = new ArrayList<>();
+            for( String nsdFile : nsdFiles ) {
+                CollectingConsole fileConsole = new CollectingConsole( console );
+                consoles.add( fileConsole );
+                resources.add( executor.submit( () -> new NsdModelLoader().load( nsdFile, fileConsole )));
+            }
+            for( int i = 0; i < resources.size(); ++i ) {
+                Resource resource = null;
+                Throwable failure = null;
+                try {
+                    resource = resources.get( i ).get();
+                }
+                catch( ExecutionException e ) {
+                    failure = e.getCause();
+                }
+                for( RiseClipseMessage message : consoles.get( i ).getMessages() ) {
+                    console.output( message );
+                }
+                if( failure != null ) {
+                    console.error( SETUP_NSD_CATEGORY, 0, "Exception while loading ", nsdFiles.get( i ), ": ", failure );
+                }
+                else if( resource != null ) {
+                    nsdLoader.getResourceSet().getResources().add( resource );
+                }
+            }
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+    
+    /*
+     * Keeps the messages of a file parsed in another thread
+     */
+    private static class CollectingConsole implements IRiseClipseConsole {
+        
+        private final IRiseClipseConsole console;
+        private final List< RiseClipseMessage > messages = new ArrayList<>();
+        private Severity level;
+        
+        CollectingConsole( IRiseClipseConsole console ) {
+            this.console = console;
+            this.level = console.getLevel();
+        }
+        
+        List< RiseClipseMessage > getMessages() {
+            return messages;
+        }
+
+        @Override
+        public void output( RiseClipseMessage message ) {
+            messages.add( message );
+        }
+
+        @Override
+        public Severity setLevel( Severity level ) {
+            Severity previous = this.level;
+            this.level = level;
+            return previous;
+        }
+
+        @Override
+        public Severity getLevel() {
+            return level;
+        }
+
+        @Override
+        public void displayIdenticalMessages() {
+            // Decided by the shared console when messages are displayed
+        }
+
+        @Override
+        public void doNotDisplayIdenticalMessages() {
+            // Decided by the shared console when messages are displayed
+        }
+
+        @Override
+        public String getFormatString() {
+            return console.getFormatString();
+        }
+
+        /*
+         * Messages are formatted by the shared console when they are output, with its format.
+         * Changing it from a parsing thread would change the format of every message, it is kept.
+         */
+        @Override
+        public String setFormatString( String newFormatString ) {
+            return console.getFormatString();
+        }
+    }
+    
+    public void prepare( @NonNull SclComposedEValidator validator, @NonNull IRiseClipseConsole console, boolean displayNsdMessages ) {
+        NsdValidator.displayNsdMessages = displayNsdMessages;
         Severity level = Severity.WARNING;
         if( ! displayNsdMessages ) {
             level = console.setLevel( Severity.ERROR );            
@@ -59,6 +202,13 @@ public class NsdValidator {
         }
     }
 
+    /*
+     * NSD files are not needed if all NSD validations are skipped
+     */
+    public static boolean isEnabled() {
+        return CategoryFilter.mayBeEnabled( VALIDATION_NSD_CATEGORY );
+    }
+
     public @NonNull NsdModelLoader getNsdLoader() {
         return nsdLoader;
     }
@@ -67,4 +217,11 @@ public class NsdValidator {
         nsdEObjectValidator.reset();
     }
 
+    /*
+     * Validation of an LNodeType used by LNs in the given namespace, when these LNs are not in the model
+     */
+    public boolean validateLNodeType( @NonNull LNodeType lNodeType, @NonNull String namespace, @NonNull DiagnosticChain diagnostics ) {
+        return nsdEObjectValidator.validateLNodeType( lNodeType, namespace, diagnostics );
+    }
+
 }
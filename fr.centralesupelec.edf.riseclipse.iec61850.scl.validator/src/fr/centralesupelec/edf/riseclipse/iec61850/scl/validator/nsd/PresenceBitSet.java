@@ -0,0 +1,162 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+**
+**  This file is part of the RiseClipse tool
+**
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/*
+ * Presence of the components (DO, DA, SDO, BDA) specified by an NSD object (LNClass, CDC, ConstructedAttribute).
+ * Each component name is given a dense index when the specification is complete, presence is then recorded in bitsets.
+ * The sets of names used by presence conditions are compiled into masks the first time they are used,
+ * so that most presence conditions are checked with a few word operations. When a condition is not
+ * satisfied, presence validators use their usual name based loops to build the messages.
+ */
+class PresenceBitSet {
+
+    private static class Mask {
+        long[] bits;
+        // false if some names are not components of the specification
+        boolean complete = true;
+    }
+
+    private HashMap< String, Integer > index = new HashMap<>();
+    private long[] present;
+    // Components with an instance number (only used for DataObject)
+    private long[] multi;
+    // Key is a set of names used by a presence condition
+    private IdentityHashMap< Collection< String >, Mask > masks = new IdentityHashMap<>();
+
+    PresenceBitSet( Collection< String > names ) {
+        for( String name : names ) {
+            index.put( name, index.size() );
+        }
+        present = new long[( index.size() + 63 ) >>> 6];
+        multi = new long[present.length];
+    }
+
+    /*
+     * Returns -1 if the name is not a component of the specification
+     */
+    int indexOf( String name ) {
+        Integer i = index.get( name );
+        return ( i == null ) ? -1 : i;
+    }
+
+    void setPresent( int i ) {
+        present[i >>> 6] |= 1L << i;
+    }
+
+    void setMulti( int i ) {
+        multi[i >>> 6] |= 1L << i;
+    }
+
+    boolean isPresent( int i ) {
+        return ( present[i >>> 6] & ( 1L << i )) != 0;
+    }
+
+    void clear() {
+        Arrays.fill( present, 0L );
+        Arrays.fill( multi, 0L );
+    }
+
+    private Mask maskOf( Collection< String > names ) {
+        Mask mask = masks.get( names );
+        if( mask == null ) {
+            mask = new Mask();
+            mask.bits = new long[present.length];
+            for( String name : names ) {
+                Integer i = index.get( name );
+                if( i == null ) {
+                    mask.complete = false;
+                }
+                else {
+                    mask.bits[i >>> 6] |= 1L << i;
+                }
+            }
+            masks.put( names, mask );
+        }
+        return mask;
+    }
+
+    boolean allPresent( Collection< String > names ) {
+        Mask mask = maskOf( names );
+        if( ! mask.complete ) return false;
+        for( int w = 0; w < present.length; ++w ) {
+            if(( present[w] & mask.bits[w] ) != mask.bits[w] ) return false;
+        }
+        return true;
+    }
+
+    boolean nonePresent( Collection< String > names ) {
+        long[] bits = maskOf( names ).bits;
+        for( int w = 0; w < present.length; ++w ) {
+            if(( present[w] & bits[w] ) != 0 ) return false;
+        }
+        return true;
+    }
+
+    int countPresent( Collection< String > names ) {
+        long[] bits = maskOf( names ).bits;
+        int count = 0;
+        for( int w = 0; w < present.length; ++w ) {
+            count += Long.bitCount( present[w] & bits[w] );
+        }
+        return count;
+    }
+
+    /*
+     * All components are present and have an instance number
+     */
+    boolean allMulti( Collection< String > names ) {
+        Mask mask = maskOf( names );
+        if( ! mask.complete ) return false;
+        for( int w = 0; w < multi.length; ++w ) {
+            if(( multi[w] & mask.bits[w] ) != mask.bits[w] ) return false;
+        }
+        return true;
+    }
+
+    /*
+     * No component has an instance number
+     */
+    boolean noneMulti( Collection< String > names ) {
+        long[] bits = maskOf( names ).bits;
+        for( int w = 0; w < multi.length; ++w ) {
+            if(( multi[w] & bits[w] ) != 0 ) return false;
+        }
+        return true;
+    }
+
+    /*
+     * No component is present without an instance number
+     */
+    boolean noneSingle( Collection< String > names ) {
+        long[] bits = maskOf( names ).bits;
+        for( int w = 0; w < present.length; ++w ) {
+            if(( present[w] & ~multi[w] & bits[w] ) != 0 ) return false;
+        }
+        return true;
+    }
+
+}
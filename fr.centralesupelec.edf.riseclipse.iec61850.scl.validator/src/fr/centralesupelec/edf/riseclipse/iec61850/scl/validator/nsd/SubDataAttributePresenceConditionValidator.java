@@ -37,7 +37,7 @@ import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
 public class SubDataAttributePresenceConditionValidator extends GenericPresenceConditionValidator< ConstructedAttribute, DAType, @Nullable BDA >{
     
     private static final String SDA_SETUP_NSD_CATEGORY      = NsdValidator.SETUP_NSD_CATEGORY      + "/SubDataAttribute";
-    private static final String SDA_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/SubDataAttribute";
+    static final String SDA_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/SubDataAttribute";
 
     private static IdentityHashMap< NsIdentificationName, SubDataAttributePresenceConditionValidator > validators = new IdentityHashMap<>();
     
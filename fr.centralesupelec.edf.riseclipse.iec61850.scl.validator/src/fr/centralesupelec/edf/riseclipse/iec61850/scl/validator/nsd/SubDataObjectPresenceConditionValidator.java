@@ -42,7 +42,7 @@ import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
 public class SubDataObjectPresenceConditionValidator extends GenericPresenceConditionValidator< CDC, DOType, @Nullable SDO >{
 
     private static final String SDO_SETUP_NSD_CATEGORY      = NsdValidator.SETUP_NSD_CATEGORY      + "/SubDataObject";
-    private static final String SDO_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/SubDataObject";
+    static final String SDO_VALIDATION_NSD_CATEGORY = NsdValidator.VALIDATION_NSD_CATEGORY + "/SubDataObject";
 
     private static IdentityHashMap< NsIdentificationName, SubDataObjectPresenceConditionValidator > validators = new IdentityHashMap<>();
     
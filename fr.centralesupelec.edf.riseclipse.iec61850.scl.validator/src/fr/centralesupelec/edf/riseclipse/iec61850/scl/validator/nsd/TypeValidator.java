@@ -20,6 +20,7 @@
 */
 package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
 
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.stream.Stream;
 
@@ -32,47 +33,61 @@ import fr.centralesupelec.edf.riseclipse.iec61850.nsd.ConstructedAttribute;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.Enumeration;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.NsdObject;
 import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentification;
-import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentificationObject;
+import fr.centralesupelec.edf.riseclipse.iec61850.nsd.util.NsIdentificationName;
 import fr.centralesupelec.edf.riseclipse.iec61850.scl.AbstractDataAttribute;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.CategoryFilter;
 import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
 
 public abstract class TypeValidator {
 
     // ServiceConstructedAttribute may be parameterized, therefore the name is not an identifier
-    // private static IdentityHashMap< NsIdentificationName, TypeValidator > validators = new IdentityHashMap<>();
-    private static IdentityHashMap< NsIdentificationObject, TypeValidator > validators = new IdentityHashMap<>();
+    // A validator is built when its type is first looked up
+    private static NsResolutionTable< NsdObject, TypeValidator > validators = new NsResolutionTable<>( true );
+    // Declared types, indexed by name (used for inherited enumerations)
+    private static IdentityHashMap< NsIdentificationName, NsdObject > typesByName = new IdentityHashMap<>();
+    // First type declared with a given name, whatever its namespace (used when the DependsOn chain has none)
+    private static HashMap< String, Pair< NsdObject, NsIdentification > > typesInAnyNamespace = new HashMap<>();
     
     public static Pair< TypeValidator, NsIdentification > get( NsIdentification nsIdentification, NsdObject type ) {
-        NsIdentification nsId = nsIdentification;
-        TypeValidator typeValidator = null;
-        while(( typeValidator == null ) && ( nsId != null )) {
-            typeValidator = validators.get( NsIdentificationObject.of( nsId, type ));
-            nsIdentification = nsId;
-            nsId = nsId.getDependsOn();
-        }
-        return Pair.of( typeValidator, nsIdentification );
+        return validators.get( nsIdentification, type );
     }
     
     public static Pair< TypeValidator, NsIdentification > getByName( NsIdentification nsIdentification, String typeName ) {
         NsIdentification nsId = nsIdentification;
-        while( nsId != null ) {
-            for( TypeValidator validator : validators.values() ) {
-                if( validator.getName().equals( typeName ))
-                    return Pair.of( validator, nsIdentification );
-            }
+        NsdObject type = null;
+        while(( type == null ) && ( nsId != null )) {
+            type = typesByName.get( NsIdentificationName.of( nsId, typeName ));
             nsIdentification = nsId;
             nsId = nsId.getDependsOn();
         }
-        return Pair.of( null, nsIdentification );
+        if( type != null ) return get( nsIdentification, type );
+        // As before the index by name, a type of a namespace outside the DependsOn chain is accepted
+        Pair< NsdObject, NsIdentification > any = typesInAnyNamespace.get( typeName );
+        if( any == null ) return Pair.of( null, nsIdentification );
+        return get( any.getRight(), any.getLeft() );
+    }
+
+    private static void addTypeByName( NsIdentification nsIdentification, String typeName, NsdObject type ) {
+        typesByName.put( NsIdentificationName.of( nsIdentification, typeName ), type );
+        typesInAnyNamespace.putIfAbsent( typeName, Pair.of( type, nsIdentification ));
     }
     
     protected abstract String getName();
 
-    public static void buildBasicTypeValidators( NsIdentification nsIdentification, Stream< BasicType > basicTypeStream, IRiseClipseConsole console ) {
+    /*
+     * Validation of a DA or BDA type is not needed if all type validations are skipped
+     */
+    static boolean isEnabled() {
+        return CategoryFilter.isEnabled( BasicTypeValidator.BASIC_TYPE_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( EnumerationValidator.ENUMERATION_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( ConstructedAttributeValidator.CA_VALIDATION_NSD_CATEGORY )
+            || CategoryFilter.isEnabled( SubDataAttributePresenceConditionValidator.SDA_VALIDATION_NSD_CATEGORY );
+    }
+
+    public static void declareBasicTypeValidators( NsIdentification nsIdentification, Stream< BasicType > basicTypeStream, IRiseClipseConsole console ) {
         basicTypeStream
         .forEach( basicType -> {
-            NsIdentificationObject nsId = NsIdentificationObject.of( nsIdentification, basicType );
-            if( validators.get( nsId ) != null ) {
+            if( validators.isDeclared( nsIdentification, basicType )) {
                 console.warning( BasicTypeValidator.BASIC_TYPE_SETUP_NSD_CATEGORY, basicType.getFilename(), basicType.getLineNumber(),
                                  "BasicType ", basicType.getName(), " has already a validator in namespace \"",
                                  nsIdentification, "\", it will be overwritten" );
@@ -83,15 +98,15 @@ public abstract class TypeValidator {
                                 nsIdentification, "\"" );
             }
             // BasicTypes are predefined
-            validators.put( nsId, BasicTypeValidator.get( basicType ));
+            validators.declare( nsIdentification, basicType, () -> BasicTypeValidator.get( basicType ));
+            addTypeByName( nsIdentification, basicType.getName(), basicType );
         });
     }
 
-    public static void builEnumerationdValidators( NsIdentification nsIdentification, Stream< Enumeration > enumerationStream, IRiseClipseConsole console ) {
+    public static void declareEnumerationValidators( NsIdentification nsIdentification, Stream< Enumeration > enumerationStream, IRiseClipseConsole console ) {
         enumerationStream
         .forEach( enumeration -> {
-            NsIdentificationObject nsId = NsIdentificationObject.of( nsIdentification, enumeration );
-            if( validators.get( nsId ) != null ) {
+            if( validators.isDeclared( nsIdentification, enumeration )) {
                 console.warning( EnumerationValidator.ENUMERATION_SETUP_NSD_CATEGORY, enumeration.getFilename(), enumeration.getLineNumber(),
                                  "Enumeration ", enumeration.getName(), " has already a validator in namespace \"",
                                  nsIdentification, "\", it will be overwritten" );
@@ -101,42 +116,44 @@ public abstract class TypeValidator {
                                 "Adding validator for Enumeration ", enumeration.getName(), " in namespace \"",
                                 nsIdentification, "\"" );
             }
-            validators.put( nsId, new EnumerationValidator( enumeration, nsIdentification, console ));
+            validators.declare(
+                    nsIdentification,
+                    enumeration,
+                    () -> NsdValidator.buildValidator( setupConsole -> new EnumerationValidator( enumeration, nsIdentification, setupConsole )) );
+            addTypeByName( nsIdentification, enumeration.getName(), enumeration );
         });
     }
 
-    public static void buildConstructedAttributeValidators( NsIdentification nsIdentification, Stream< ConstructedAttribute > constructedAttributeStream, IRiseClipseConsole console ) {
+    public static void declareConstructedAttributeValidators( NsIdentification nsIdentification, Stream< ConstructedAttribute > constructedAttributeStream, IRiseClipseConsole console ) {
         constructedAttributeStream
-        .forEach( constructedAttribute -> buildConstructedAttributeValidator( nsIdentification, constructedAttribute, console ));
+        .forEach( constructedAttribute -> {
+            if( validators.isDeclared( nsIdentification, constructedAttribute )) {
+                console.warning( ConstructedAttributeValidator.CA_SETUP_NSD_CATEGORY, constructedAttribute.getFilename(), constructedAttribute.getLineNumber(),
+                                 "ConstructedAttribute ", constructedAttribute.getName(), " has already a validator in namespace \"",
+                                 nsIdentification, "\", it will be overwritten" );
+            }
+            else {
+                console.debug( ConstructedAttributeValidator.CA_SETUP_NSD_CATEGORY, constructedAttribute.getFilename(), constructedAttribute.getLineNumber(),
+                                "Adding validator for ConstructedAttribute ", constructedAttribute.getName(), " in namespace \"",
+                                nsIdentification, "\"" );
+            }
+            validators.declare(
+                    nsIdentification,
+                    constructedAttribute,
+                    () -> NsdValidator.buildValidator( setupConsole -> new ConstructedAttributeValidator( nsIdentification, constructedAttribute, setupConsole )) );
+            addTypeByName( nsIdentification, constructedAttribute.getName(), constructedAttribute );
+        });
     }
 
-    // A ConstructedAttribute may use another one whose validator has not yet being built
+    // A ConstructedAttribute may use one which is not declared (parameterized) or whose validator is being built
     public static TypeValidator buildConstructedAttributeValidator( NsIdentification nsIdentification, ConstructedAttribute constructedAttribute, IRiseClipseConsole console ) {
-        NsIdentificationObject nsId = NsIdentificationObject.of( nsIdentification, constructedAttribute );
-        if( validators.get( nsId ) != null ) {
-            // The usual case is when it has been built because used as the type of a SubDataAttribute
-            console.notice( ConstructedAttributeValidator.CA_SETUP_NSD_CATEGORY, constructedAttribute.getFilename(), constructedAttribute.getLineNumber(),
-                             "ConstructedAttribute ", constructedAttribute.getName(), " has already a validator in namespace \"",
-                             nsIdentification, "\", it will be overwritten" );
-        }
-        else {
-            console.debug( ConstructedAttributeValidator.CA_SETUP_NSD_CATEGORY, constructedAttribute.getFilename(), constructedAttribute.getLineNumber(),
-                            "Adding validator for ConstructedAttribute ", constructedAttribute.getName(), " in namespace \"",
-                            nsIdentification, "\"" );
-        }
+        console.debug( ConstructedAttributeValidator.CA_SETUP_NSD_CATEGORY, constructedAttribute.getFilename(), constructedAttribute.getLineNumber(),
+                        "Adding validator for ConstructedAttribute ", constructedAttribute.getName(), " in namespace \"",
+                        nsIdentification, "\"" );
         ConstructedAttributeValidator validator = new ConstructedAttributeValidator( nsIdentification, constructedAttribute, console );
-        validators.put( nsId, validator );
+        validators.put( nsIdentification, constructedAttribute, validator );
         return validator;
     }
 
     public abstract boolean validateAbstractDataAttribute( AbstractDataAttribute ada, DiagnosticChain diagnostics );
-
-    /*
-     * Called before another file is validated
-     */
-    public static void resetValidators() {
-        validators.values().stream().forEach( v -> v.reset() );
-    }
-
-    public abstract void reset();
 }
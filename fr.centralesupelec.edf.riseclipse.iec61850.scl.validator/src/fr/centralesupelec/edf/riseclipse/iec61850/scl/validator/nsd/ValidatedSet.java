@@ -0,0 +1,55 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+**
+**  This file is part of the RiseClipse tool
+**
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.nsd;
+
+import java.util.HashSet;
+
+/*
+ * Set of already validated SCL types (LNodeType, DOType, DAType…), valid only for the current file.
+ * Instead of emptying all sets before another file is validated, a generation counter is incremented;
+ * a set is emptied when it is used for the first time in a new generation.
+ */
+class ValidatedSet< T > {
+
+    private static int currentGeneration = 0;
+
+    /*
+     * Called before another file is validated
+     */
+    static void nextGeneration() {
+        ++currentGeneration;
+    }
+
+    private HashSet< T > validated = new HashSet<>();
+    private int generation = currentGeneration;
+
+    /*
+     * Returns true if the element has not already been validated in the current generation
+     */
+    boolean add( T element ) {
+        if( generation != currentGeneration ) {
+            validated.clear();
+            generation = currentGeneration;
+        }
+        return validated.add( element );
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+** 
+**  This file is part of the RiseClipse tool
+**  
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.rules;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.CategoryFilter;
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.SclComposedEValidator;
+import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+
+public class SclRuleLoader {
+
+    private static final String RULES_SETUP_CATEGORY = "Rules/Setup";
+
+    /*
+     * Validators of all SclRuleProvider found on the classpath or in the given jars are added to validator
+     */
+    public static void install( @NonNull SclComposedEValidator validator, @NonNull List< @NonNull String > rulesJars, @NonNull IRiseClipseConsole console ) {
+        ClassLoader parent = SclRuleLoader.class.getClassLoader();
+        ClassLoader classLoader = parent;
+        if( ! rulesJars.isEmpty() ) {
+            List< URL > urls = new ArrayList<>();
+            for( String jar : rulesJars ) {
+                try {
+                    urls.add( new File( jar ).toURI().toURL() );
+                }
+                catch( MalformedURLException e ) {
+                    console.error( RULES_SETUP_CATEGORY, 0, "Cannot use rules jar ", jar, ": ", e.getMessage() );
+                }
+            }
+            classLoader = new URLClassLoader( urls.toArray( new URL[0] ), parent );
+        }
+
+        try {
+            // Providers of skipped rules are not instantiated
+            ServiceLoader.load( SclRuleProvider.class, classLoader )
+            .stream()
+            .filter( provider -> CategoryFilter.isEnabled( "Rules/" + provider.type().getName() ))
+            .forEach( provider -> {
+                console.info( RULES_SETUP_CATEGORY, 0, "Adding rules from ", provider.type().getName() );
+                for( EValidator rules : provider.get().getValidators( console )) {
+                    validator.addChild( rules );
+                }
+            });
+        }
+        catch( ServiceConfigurationError e ) {
+            console.error( RULES_SETUP_CATEGORY, 0, "Cannot load rules: ", e.getMessage() );
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+** 
+**  This file is part of the RiseClipse tool
+**  
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.rules;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.util.IRiseClipseConsole;
+
+/*
+ * Service interface for rules written in Java.
+ * Implementations are found with java.util.ServiceLoader, on the classpath or in jars given with --rules-jar:
+ * such a jar must contain a META-INF/services/fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.rules.SclRuleProvider
+ * file with the names of its implementations.
+ * The returned validators are added to the ComposedEValidator of the SCL package, like the OCL and NSD ones.
+ * They may extend SclRuleVisitor to be called only for the SCL objects they are interested in.
+ */
+public interface SclRuleProvider {
+
+    @NonNull List< @NonNull EValidator > getValidators( @NonNull IRiseClipseConsole console );
+
+}
@@ -0,0 +1,120 @@
+/*
+*************************************************************************
+**  Copyright (c) 2023 CentraleSupélec & EDF.
+**  All rights reserved. This program and the accompanying materials
+**  are made available under the terms of the Eclipse Public License v2.0
+**  which accompanies this distribution, and is available at
+**  https://www.eclipse.org/legal/epl-v20.html
+** 
+**  This file is part of the RiseClipse tool
+**  
+**  Contributors:
+**      Computer Science Department, CentraleSupélec
+**      EDF R&D
+**  Contacts:
+**      dominique.marcadet@centralesupelec.fr
+**      aurelie.dehouck-neveu@edf.fr
+**  Web site:
+**      https://riseclipse.github.io/
+*************************************************************************
+*/
+
+package fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.rules;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.jdt.annotation.NonNull;
+
+import fr.centralesupelec.edf.riseclipse.iec61850.scl.validator.RiseClipseValidatorSCL;
+import fr.centralesupelec.edf.riseclipse.util.RiseClipseMessage;
+import fr.centralesupelec.edf.riseclipse.util.Severity;
+
+/*
+ * Base class for Java rules: each rule is registered for an EClass of the SCL metamodel
+ * and is only called for objects of this EClass or of its subclasses. For example:
+ *
+ *     addRule( SclPackage.Literals.IED, ( IED ied, DiagnosticChain diagnostics ) -> {
+ *         if( ied.getManufacturer() != null ) return true;
+ *         report( diagnostics, ied, RiseClipseMessage.warning( "SCL/MyRules", ied.getFilename(), ied.getLineNumber(),
+ *                 "IED ", ied.getName(), " has no manufacturer" ));
+ *         return false;
+ *     });
+ */
+public abstract class SclRuleVisitor implements EValidator {
+
+    @FunctionalInterface
+    public interface Rule< T extends EObject > {
+        boolean check( @NonNull T object, @NonNull DiagnosticChain diagnostics );
+    }
+
+    // Rules as registered
+    private IdentityHashMap< EClass, List< Rule< EObject > > > rules = new IdentityHashMap<>();
+    // Rules applicable to an EClass, including those registered for its super types, computed on first use
+    private IdentityHashMap< EClass, List< Rule< EObject > > > dispatch = new IdentityHashMap<>();
+
+    @SuppressWarnings( "unchecked" )
+    protected < T extends EObject > void addRule( @NonNull EClass eClass, @NonNull Rule< T > rule ) {
+        rules.computeIfAbsent( eClass, c -> new ArrayList<>() ).add(( Rule< EObject > ) rule );
+        dispatch.clear();
+    }
+
+    private List< Rule< EObject > > rulesFor( EClass eClass ) {
+        List< Rule< EObject > > applicable = new ArrayList<>();
+        List< Rule< EObject > > own = rules.get( eClass );
+        if( own != null ) applicable.addAll( own );
+        for( EClass superType : eClass.getEAllSuperTypes() ) {
+            List< Rule< EObject > > inherited = rules.get( superType );
+            if( inherited != null ) applicable.addAll( inherited );
+        }
+        return applicable;
+    }
+
+    @Override
+    public boolean validate( EObject eObject, DiagnosticChain diagnostics, Map< Object, Object > context ) {
+        return validate( eObject.eClass(), eObject, diagnostics, context );
+    }
+
+    @Override
+    public boolean validate( EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map< Object, Object > context ) {
+        boolean result = true;
+        for( Rule< EObject > rule : dispatch.computeIfAbsent( eClass, this::rulesFor )) {
+            result &= rule.check( eObject, diagnostics );
+        }
+        return result;
+    }
+
+    @Override
+    public boolean validate( EDataType eDataType, Object value, DiagnosticChain diagnostics, Map< Object, Object > context ) {
+        return true;
+    }
+
+    /*
+     * Messages are displayed by RiseClipseValidatorSCL like those of the NSD validator
+     */
+    protected static void report( @NonNull DiagnosticChain diagnostics, @NonNull EObject object, @NonNull RiseClipseMessage message ) {
+        int severity = Diagnostic.INFO;
+        if( message.getSeverity().compareTo( Severity.ERROR ) <= 0 ) {
+            severity = Diagnostic.ERROR;
+        }
+        else if( message.getSeverity() == Severity.WARNING ) {
+            severity = Diagnostic.WARNING;
+        }
+        diagnostics.add( new BasicDiagnostic(
+                severity,
+                RiseClipseValidatorSCL.DIAGNOSTIC_SOURCE,
+                0,
+                message.getMessage(),
+                new Object[] { object, message } ));
+    }
+
+}